@@ -0,0 +1,115 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationService;
+import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Runs the JWT filter against a stub chain; the user lookup of the
+ * non-stateless path is a stub, so only filter and token costs are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthTokenFilterBenchmark {
+
+  @Param({ "true", "false" })
+  public boolean statelessPrincipal;
+
+  private AuthTokenFilter filter;
+
+  private MockHttpServletRequest request;
+
+  private MockHttpServletResponse response;
+
+  @Setup
+  public void setUp() {
+    JwtUtils jwtUtils = BenchmarkFixtures.jwtUtils();
+
+    UserDetailsServiceImpl userDetailsService = mock(
+      UserDetailsServiceImpl.class
+    );
+    when(userDetailsService.loadUserByUsername(anyString()))
+      .thenReturn(BenchmarkFixtures.userDetails());
+
+    UserRepository userRepository = mock(UserRepository.class);
+    when(userRepository.existsById(anyLong())).thenReturn(true);
+    TokenRevocationService tokenRevocationService = new TokenRevocationService(
+      userRepository,
+      BenchmarkFixtures.JWT_EXPIRATION_MS,
+      60000L,
+      10000L
+    );
+
+    filter = new AuthTokenFilter();
+    ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+    ReflectionTestUtils.setField(
+      filter,
+      "userDetailsService",
+      userDetailsService
+    );
+    ReflectionTestUtils.setField(
+      filter,
+      "tokenRevocationService",
+      tokenRevocationService
+    );
+    ReflectionTestUtils.setField(
+      filter,
+      "statelessPrincipal",
+      statelessPrincipal
+    );
+
+    String token = jwtUtils.generateJwtToken(
+      BenchmarkFixtures.authentication()
+    );
+    request = new MockHttpServletRequest("GET", "/api/session");
+    request.addHeader("Authorization", "Bearer " + token);
+    response = new MockHttpServletResponse();
+  }
+
+  @TearDown
+  public void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Benchmark
+  public Object doFilterInternal() throws ServletException, IOException {
+    MockFilterChain chain = new MockFilterChain();
+    filter.doFilter(request, response, chain);
+    Object authentication = SecurityContextHolder
+      .getContext()
+      .getAuthentication();
+    SecurityContextHolder.clearContext();
+    return authentication;
+  }
+}
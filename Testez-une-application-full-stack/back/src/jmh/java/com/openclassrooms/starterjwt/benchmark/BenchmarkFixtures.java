@@ -0,0 +1,146 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.mapper.SessionMapperImpl;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.services.TeacherService;
+import com.openclassrooms.starterjwt.services.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+final class BenchmarkFixtures {
+
+  static final String JWT_SECRET = "benchmarkSecretKey";
+
+  static final int JWT_EXPIRATION_MS = 86400000;
+
+  private BenchmarkFixtures() {}
+
+  static JwtUtils jwtUtils() {
+    JwtUtils jwtUtils = new JwtUtils(new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(jwtUtils, "jwtSecret", JWT_SECRET);
+    ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", JWT_EXPIRATION_MS);
+    return jwtUtils;
+  }
+
+  static UserDetailsImpl userDetails() {
+    return UserDetailsImpl
+      .builder()
+      .id(1L)
+      .username("yoga@studio.com")
+      .firstName("Admin")
+      .lastName("Admin")
+      .admin(true)
+      .password("$2a$10$.Hsa/ZjUVaHqi0tp9xieMeewrnZxrZ5pQRzddUXE/WjDu2ZThe6Iq")
+      .build();
+  }
+
+  static Authentication authentication() {
+    UserDetailsImpl userDetails = userDetails();
+    return new UsernamePasswordAuthenticationToken(
+      userDetails,
+      null,
+      Collections.emptyList()
+    );
+  }
+
+  static Teacher teacher() {
+    return Teacher
+      .builder()
+      .id(1L)
+      .firstName("Margot")
+      .lastName("DELAHAYE")
+      .createdAt(LocalDateTime.of(2024, 1, 1, 9, 0))
+      .updatedAt(LocalDateTime.of(2024, 1, 1, 9, 0))
+      .build();
+  }
+
+  static List<User> users(int count) {
+    List<User> users = new ArrayList<>(count);
+    for (long id = 1; id <= count; id++) {
+      users.add(
+        User
+          .builder()
+          .id(id)
+          .email("user" + id + "@studio.com")
+          .firstName("First" + id)
+          .lastName("Last" + id)
+          .password("password")
+          .admin(false)
+          .build()
+      );
+    }
+    return users;
+  }
+
+  static List<Long> userIds(List<User> users) {
+    return users.stream().map(User::getId).collect(Collectors.toList());
+  }
+
+  static Session session(long id, List<User> participants) {
+    return Session
+      .builder()
+      .id(id)
+      .name("Session " + id)
+      .date(new Date(1704103200000L + id * 3600000L))
+      .description("Yoga session number " + id + " for all levels.")
+      .teacher(teacher())
+      .users(new ArrayList<>(participants))
+      .createdAt(LocalDateTime.of(2024, 1, 1, 9, 0))
+      .updatedAt(LocalDateTime.of(2024, 1, 2, 9, 0))
+      .build();
+  }
+
+  /** A generated mapper backed by in-memory services, free of mock overhead. */
+  static SessionMapper sessionMapper(List<User> knownUsers) {
+    final Map<Long, User> usersById = knownUsers
+      .stream()
+      .collect(Collectors.toMap(User::getId, Function.identity()));
+    final Teacher teacher = teacher();
+
+    SessionMapper sessionMapper = new SessionMapperImpl();
+    ReflectionTestUtils.setField(
+      sessionMapper,
+      "userService",
+      new UserService(null, null, null) {
+        @Override
+        public List<User> findAllById(Collection<Long> ids) {
+          List<User> users = new ArrayList<>(ids.size());
+          for (Long id : ids) {
+            User user = usersById.get(id);
+            if (user != null) {
+              users.add(user);
+            }
+          }
+          return users;
+        }
+      }
+    );
+    ReflectionTestUtils.setField(
+      sessionMapper,
+      "teacherService",
+      new TeacherService(null) {
+        @Override
+        public Teacher findById(Long id) {
+          return teacher;
+        }
+      }
+    );
+    return sessionMapper;
+  }
+}
@@ -0,0 +1,163 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.models.PooledIds;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Hibernate inserts of N rows in one transaction: IDENTITY ids (one INSERT per
+ * row) against PooledIds ids backed by a table, as on MySQL (JDBC batches).
+ * H2 runs in process, so this understates the gain over a network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityInsertBenchmark {
+
+  @Param({ "100", "1000" })
+  public int rows;
+
+  private StandardServiceRegistry registry;
+
+  private SessionFactory sessionFactory;
+
+  @Setup
+  public void setUp() {
+    registry =
+      new StandardServiceRegistryBuilder()
+        .applySetting(
+          AvailableSettings.URL,
+          "jdbc:h2:mem:inserts;MODE=MySQL;DB_CLOSE_DELAY=-1"
+        )
+        .applySetting(AvailableSettings.USER, "sa")
+        .applySetting(AvailableSettings.PASS, "")
+        .applySetting(
+          AvailableSettings.DIALECT,
+          "org.hibernate.dialect.H2Dialect"
+        )
+        .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+        .applySetting(AvailableSettings.STATEMENT_BATCH_SIZE, "50")
+        .applySetting(AvailableSettings.ORDER_INSERTS, "true")
+        .build();
+    sessionFactory =
+      new MetadataSources(registry)
+        .addAnnotatedClass(IdentityRow.class)
+        .addAnnotatedClass(PooledRow.class)
+        .buildMetadata()
+        .buildSessionFactory();
+  }
+
+  @TearDown
+  public void tearDown() {
+    sessionFactory.close();
+    StandardServiceRegistryBuilder.destroy(registry);
+  }
+
+  @TearDown(Level.Iteration)
+  public void deleteRows() {
+    try (Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      session.createQuery("DELETE FROM IdentityRow").executeUpdate();
+      session.createQuery("DELETE FROM PooledRow").executeUpdate();
+      transaction.commit();
+    }
+  }
+
+  @Benchmark
+  public void identity() {
+    try (Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      for (int i = 0; i < rows; i++) {
+        session.persist(new IdentityRow("row" + i));
+      }
+      transaction.commit();
+    }
+  }
+
+  @Benchmark
+  public void pooled() {
+    try (Session session = sessionFactory.openSession()) {
+      Transaction transaction = session.beginTransaction();
+      for (int i = 0; i < rows; i++) {
+        session.persist(new PooledRow("row" + i));
+      }
+      transaction.commit();
+    }
+  }
+
+  @Entity(name = "IdentityRow")
+  @Table(name = "IDENTITY_ROWS")
+  public static class IdentityRow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String name;
+
+    public IdentityRow() {}
+
+    IdentityRow(String name) {
+      this.name = name;
+    }
+  }
+
+  @Entity(name = "PooledRow")
+  @Table(name = "POOLED_ROWS")
+  public static class PooledRow {
+
+    @Id
+    @GeneratedValue(
+      strategy = GenerationType.SEQUENCE,
+      generator = "POOLED_ROWS_SEQ"
+    )
+    @GenericGenerator(
+      name = "POOLED_ROWS_SEQ",
+      strategy = PooledIds.STRATEGY,
+      parameters = {
+        @Parameter(name = "sequence_name", value = "POOLED_ROWS_SEQ"),
+        @Parameter(name = "increment_size", value = PooledIds.INCREMENT_SIZE),
+        @Parameter(name = "optimizer", value = PooledIds.OPTIMIZER),
+        @Parameter(name = "force_table_generation", value = "true"),
+      }
+    )
+    private Long id;
+
+    private String name;
+
+    public PooledRow() {}
+
+    PooledRow(String name) {
+      this.name = name;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilsBenchmark {
+
+  private JwtUtils jwtUtils;
+
+  private Authentication authentication;
+
+  private String token;
+
+  @Setup
+  public void setUp() {
+    jwtUtils = BenchmarkFixtures.jwtUtils();
+    authentication = BenchmarkFixtures.authentication();
+    token = jwtUtils.generateJwtToken(authentication);
+  }
+
+  @Benchmark
+  public String generateJwtToken() {
+    return jwtUtils.generateJwtToken(authentication);
+  }
+
+  @Benchmark
+  public boolean validateJwtToken() {
+    return jwtUtils.validateJwtToken(token);
+  }
+
+  @Benchmark
+  public String getUserNameFromJwtToken() {
+    return jwtUtils.getUserNameFromJwtToken(token);
+  }
+
+  /** Signature check and claims parse that a cache hit in JwtUtils skips. */
+  @Benchmark
+  public Claims verifyAndParseUncached() {
+    return Jwts
+      .parser()
+      .setSigningKey(BenchmarkFixtures.JWT_SECRET)
+      .parseClaimsJws(token)
+      .getBody();
+  }
+}
@@ -0,0 +1,89 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Listing hot path: entities and their batch-loaded participant ids to
+ * SessionDto to JSON bytes, with the same ObjectMapper settings Spring Boot
+ * applies to controller responses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionJsonBenchmark {
+
+  @Param({ "10", "100", "1000" })
+  public int sessions;
+
+  @Param({ "0", "10" })
+  public int participantsPerSession;
+
+  private ObjectMapper objectMapper;
+
+  private SessionMapper sessionMapper;
+
+  private List<Session> sessionList;
+
+  private Map<Long, List<Long>> userIdsBySession;
+
+  private List<SessionDto> sessionDtos;
+
+  @Setup
+  public void setUp() {
+    objectMapper =
+      Jackson2ObjectMapperBuilder
+        .json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+
+    List<User> users = BenchmarkFixtures.users(participantsPerSession);
+    sessionMapper = BenchmarkFixtures.sessionMapper(users);
+    List<Long> userIds = BenchmarkFixtures.userIds(users);
+    sessionList = new ArrayList<>(sessions);
+    userIdsBySession = new HashMap<>(sessions * 2);
+    for (long id = 1; id <= sessions; id++) {
+      sessionList.add(BenchmarkFixtures.session(id, Collections.emptyList()));
+      userIdsBySession.put(id, userIds);
+    }
+    sessionDtos = sessionMapper.toDto(sessionList, userIdsBySession);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(sessionDtos);
+  }
+
+  @Benchmark
+  public byte[] mapAndSerialize() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(
+      sessionMapper.toDto(sessionList, userIdsBySession)
+    );
+  }
+}
@@ -0,0 +1,64 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The mapping calls the controllers make: participant ids come from one
+ * batch query, not from the session's lazy users. Run with -prof gc to get
+ * gc.alloc.rate.norm per mapping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionMapperBenchmark {
+
+  @Param({ "0", "10", "100", "1000" })
+  public int participants;
+
+  private SessionMapper sessionMapper;
+
+  private Session session;
+
+  private List<Long> userIds;
+
+  private SessionDto sessionDto;
+
+  @Setup
+  public void setUp() {
+    List<User> users = BenchmarkFixtures.users(participants);
+    sessionMapper = BenchmarkFixtures.sessionMapper(users);
+    session = BenchmarkFixtures.session(1L, Collections.emptyList());
+    userIds = BenchmarkFixtures.userIds(users);
+    sessionDto = sessionMapper.toDto(session, userIds);
+  }
+
+  @Benchmark
+  public SessionDto toDto() {
+    return sessionMapper.toDto(session, userIds);
+  }
+
+  @Benchmark
+  public Session toEntity() {
+    return sessionMapper.toEntity(sessionDto);
+  }
+}
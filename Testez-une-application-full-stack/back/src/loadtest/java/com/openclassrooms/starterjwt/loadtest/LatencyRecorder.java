@@ -0,0 +1,67 @@
+package com.openclassrooms.starterjwt.loadtest;
+
+import java.util.Arrays;
+
+/** Growable list of latencies in microseconds, owned by a single worker. */
+class LatencyRecorder {
+
+  private long[] samples = new long[1024];
+
+  private int size;
+
+  private int rejected;
+
+  private int errors;
+
+  /**
+   * REJECTED is a non-2xx status the scenario expects, e.g. a 400 for a
+   * random participate of a user who already participates.
+   */
+  enum Outcome {
+    SUCCESS,
+    REJECTED,
+    ERROR,
+  }
+
+  void record(long micros, Outcome outcome) {
+    if (size == samples.length) {
+      samples = Arrays.copyOf(samples, size * 2);
+    }
+    samples[size++] = micros;
+    if (outcome == Outcome.REJECTED) {
+      rejected++;
+    } else if (outcome == Outcome.ERROR) {
+      errors++;
+    }
+  }
+
+  void addAll(LatencyRecorder other) {
+    for (int i = 0; i < other.size; i++) {
+      record(other.samples[i], Outcome.SUCCESS);
+    }
+    rejected += other.rejected;
+    errors += other.errors;
+  }
+
+  int count() {
+    return size;
+  }
+
+  int rejected() {
+    return rejected;
+  }
+
+  int errors() {
+    return errors;
+  }
+
+  /** Nearest-rank percentile; sorts the samples in place. */
+  long percentile(double percentile) {
+    if (size == 0) {
+      return 0;
+    }
+    Arrays.sort(samples, 0, size);
+    int rank = (int) Math.ceil(percentile / 100.0 * size);
+    return samples[Math.max(0, Math.min(size, rank) - 1)];
+  }
+}
@@ -0,0 +1,174 @@
+package com.openclassrooms.starterjwt.loadtest;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the embedded database of the loadtest profile. User 1 is the admin of
+ * the initial migration; users 2..n are user{n}@loadtest.com, all sharing one
+ * password. Rows are saved in order from fresh sequences, so ids are 1..n.
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestDataSeeder implements ApplicationRunner {
+
+  static final String USER_EMAIL_FORMAT = "user%d@loadtest.com";
+
+  private static final Logger logger = LoggerFactory.getLogger(
+    LoadTestDataSeeder.class
+  );
+
+  private static final int BATCH_SIZE = 500;
+
+  private final TeacherRepository teacherRepository;
+
+  private final UserRepository userRepository;
+
+  private final SessionRepository sessionRepository;
+
+  private final PasswordEncoder passwordEncoder;
+
+  @Value("${loadtest.seed.users:1000}")
+  private int users;
+
+  @Value("${loadtest.seed.teachers:20}")
+  private int teachers;
+
+  @Value("${loadtest.seed.sessions:500}")
+  private int sessions;
+
+  @Value("${loadtest.seed.participantsPerSession:10}")
+  private int participantsPerSession;
+
+  @Value("${loadtest.seed.password:test!1234}")
+  private String password;
+
+  public LoadTestDataSeeder(
+    TeacherRepository teacherRepository,
+    UserRepository userRepository,
+    SessionRepository sessionRepository,
+    PasswordEncoder passwordEncoder
+  ) {
+    this.teacherRepository = teacherRepository;
+    this.userRepository = userRepository;
+    this.sessionRepository = sessionRepository;
+    this.passwordEncoder = passwordEncoder;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    validateSizes();
+    long start = System.currentTimeMillis();
+
+    List<Teacher> teacherRows = new ArrayList<>(teachers);
+    for (int i = 1; i <= teachers; i++) {
+      teacherRows.add(
+        Teacher.builder().firstName("Teacher" + i).lastName("LAST" + i).build()
+      );
+    }
+    List<Teacher> savedTeachers = saveInBatches(
+      teacherRepository,
+      teacherRows
+    );
+
+    String encodedPassword = passwordEncoder.encode(password);
+    List<User> userRows = new ArrayList<>(users);
+    userRows.add(
+      new User("yoga@studio.com", "Admin", "Admin", encodedPassword, true)
+    );
+    for (int i = 2; i <= users; i++) {
+      userRows.add(
+        new User(
+          String.format(USER_EMAIL_FORMAT, i),
+          "Last" + i,
+          "First" + i,
+          encodedPassword,
+          false
+        )
+      );
+    }
+    List<User> savedUsers = saveInBatches(userRepository, userRows);
+
+    int perSession = Math.min(participantsPerSession, users);
+    List<Session> sessionRows = new ArrayList<>(sessions);
+    for (int i = 1; i <= sessions; i++) {
+      List<User> participants = new ArrayList<>(perSession);
+      for (int j = 0; j < perSession; j++) {
+        participants.add(savedUsers.get((i * 31 + j) % users));
+      }
+      sessionRows.add(
+        Session
+          .builder()
+          .name("Session " + i)
+          .description("Load test session " + i)
+          .date(new Date(start + i * 3600000L))
+          .teacher(savedTeachers.get(i % teachers))
+          .users(participants)
+          .seatsTaken(perSession)
+          .build()
+      );
+    }
+    saveInBatches(sessionRepository, sessionRows);
+
+    logger.info(
+      "Seeded {} users, {} teachers, {} sessions and {} participations in {} ms",
+      users,
+      teachers,
+      sessions,
+      sessions * perSession,
+      System.currentTimeMillis() - start
+    );
+  }
+
+  /** Sessions pick their teacher and participants modulo these counts. */
+  private void validateSizes() {
+    if (users < 1) {
+      throw new IllegalStateException(
+        "loadtest.seed.users must be at least 1 (the admin), got " + users
+      );
+    }
+    if (teachers < 0 || sessions < 0 || participantsPerSession < 0) {
+      throw new IllegalStateException(
+        "loadtest.seed.teachers, .sessions and .participantsPerSession " +
+        "must not be negative"
+      );
+    }
+    if (sessions > 0 && teachers == 0) {
+      throw new IllegalStateException(
+        "loadtest.seed.teachers must be at least 1 to seed sessions"
+      );
+    }
+  }
+
+  /** One transaction per chunk; Hibernate sends each chunk as JDBC batches. */
+  private static <T> List<T> saveInBatches(
+    JpaRepository<T, Long> repository,
+    List<T> rows
+  ) {
+    List<T> saved = new ArrayList<>(rows.size());
+    for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+      saved.addAll(
+        repository.saveAll(
+          rows.subList(from, Math.min(from + BATCH_SIZE, rows.size()))
+        )
+      );
+    }
+    return saved;
+  }
+}
@@ -0,0 +1,494 @@
+package com.openclassrooms.starterjwt.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.openclassrooms.starterjwt.loadtest.LatencyRecorder.Outcome;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replays a weighted mix of API calls against a running instance started with
+ * the loadtest profile and prints throughput and latency percentiles per
+ * endpoint. The contention scenario instead fires concurrent signups at a
+ * single capped session. Settings are system properties, see the README.
+ */
+public class LoadTestDriver {
+
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final String baseUrl = System.getProperty(
+    "loadtest.baseUrl",
+    "http://localhost:8080"
+  );
+  private final int threads = Integer.getInteger("loadtest.threads", 16);
+  private final int warmupSeconds = Integer.getInteger(
+    "loadtest.warmupSeconds",
+    10
+  );
+  private final int durationSeconds = Integer.getInteger(
+    "loadtest.durationSeconds",
+    60
+  );
+  private final int users = Integer.getInteger("loadtest.seed.users", 1000);
+  private final int sessions = Integer.getInteger(
+    "loadtest.seed.sessions",
+    500
+  );
+  private final String password = System.getProperty(
+    "loadtest.seed.password",
+    "test!1234"
+  );
+  private final long seed = Long.getLong("loadtest.randomSeed", 42L);
+  private final String scenario = System.getProperty(
+    "loadtest.scenario",
+    "mix"
+  );
+  private final int contentionSignups = Integer.getInteger(
+    "loadtest.contention.signups",
+    500
+  );
+  private final int contentionCapacity = Integer.getInteger(
+    "loadtest.contention.capacity",
+    50
+  );
+
+  /** Endpoint name and relative weight of the replayed mix. */
+  private final Map<String, Integer> mix = new LinkedHashMap<>();
+
+  /**
+   * Non-2xx statuses the random mix triggers by design: a user participating
+   * twice, or leaving a session they are not in.
+   */
+  private final Map<String, Set<Integer>> expectedRejections = new HashMap<>();
+
+  LoadTestDriver() {
+    mix.put("login", Integer.getInteger("loadtest.mix.login", 5));
+    mix.put("list", Integer.getInteger("loadtest.mix.list", 30));
+    mix.put("detail", Integer.getInteger("loadtest.mix.detail", 45));
+    mix.put("participate", Integer.getInteger("loadtest.mix.participate", 10));
+    mix.put(
+      "unparticipate",
+      Integer.getInteger("loadtest.mix.unparticipate", 10)
+    );
+    expectedRejections.put("participate", Collections.singleton(400));
+    expectedRejections.put("unparticipate", Collections.singleton(400));
+  }
+
+  public static void main(String[] args) throws Exception {
+    new LoadTestDriver().run();
+  }
+
+  void run() throws Exception {
+    if ("contention".equals(scenario)) {
+      runContention();
+      return;
+    }
+
+    System.out.printf(
+      "Load test against %s: %d threads, %ds warmup, %ds measured%n",
+      baseUrl,
+      threads,
+      warmupSeconds,
+      durationSeconds
+    );
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      runPhase(executor, warmupSeconds);
+      long start = System.nanoTime();
+      Map<String, LatencyRecorder> results = runPhase(
+        executor,
+        durationSeconds
+      );
+      double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+      report(results, elapsedSeconds);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private Map<String, LatencyRecorder> runPhase(
+    ExecutorService executor,
+    int seconds
+  ) throws Exception {
+    long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+    List<Future<Map<String, LatencyRecorder>>> futures = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      futures.add(executor.submit(new Worker(seed + i, deadline)));
+    }
+
+    Map<String, LatencyRecorder> merged = newRecorders();
+    for (Future<Map<String, LatencyRecorder>> future : futures) {
+      for (Map.Entry<String, LatencyRecorder> entry : future.get().entrySet()) {
+        merged.get(entry.getKey()).addAll(entry.getValue());
+      }
+    }
+    return merged;
+  }
+
+  private void report(
+    Map<String, LatencyRecorder> results,
+    double elapsedSeconds
+  ) {
+    System.out.printf(
+      "%-14s %9s %8s %8s %9s %10s %10s %10s%n",
+      "endpoint",
+      "requests",
+      "rejected",
+      "errors",
+      "req/s",
+      "p50 (ms)",
+      "p99 (ms)",
+      "p999 (ms)"
+    );
+    int total = 0;
+    for (Map.Entry<String, LatencyRecorder> entry : results.entrySet()) {
+      LatencyRecorder recorder = entry.getValue();
+      total += recorder.count();
+      System.out.printf(
+        "%-14s %9d %8d %8d %9.1f %10.2f %10.2f %10.2f%n",
+        entry.getKey(),
+        recorder.count(),
+        recorder.rejected(),
+        recorder.errors(),
+        recorder.count() / elapsedSeconds,
+        recorder.percentile(50) / 1000.0,
+        recorder.percentile(99) / 1000.0,
+        recorder.percentile(99.9) / 1000.0
+      );
+    }
+    System.out.printf(
+      "%-14s %9d %26.1f%n",
+      "total",
+      total,
+      total / elapsedSeconds
+    );
+  }
+
+  /**
+   * Signs distinct users up for one new session from all threads at once, then
+   * checks that the session holds exactly min(capacity, signups) participants.
+   */
+  private void runContention() throws Exception {
+    String adminToken = login("yoga@studio.com");
+    ObjectNode session = objectMapper
+      .createObjectNode()
+      .put("name", "Contention")
+      .put("description", "Contention scenario")
+      .put("date", System.currentTimeMillis() + 86_400_000L)
+      .put("teacher_id", 1)
+      .put("capacity", contentionCapacity);
+    Response created = send(
+      "POST",
+      "/api/session",
+      session.toString(),
+      adminToken
+    );
+    long sessionId = objectMapper.readTree(created.body).get("id").asLong();
+    int signups = Math.min(contentionSignups, users - 1);
+
+    System.out.printf(
+      "Contention test against %s: %d signups for %d seats, %d threads%n",
+      baseUrl,
+      signups,
+      contentionCapacity,
+      threads
+    );
+
+    AtomicInteger seated = new AtomicInteger();
+    AtomicInteger waitlisted = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<LatencyRecorder>> futures = new ArrayList<>();
+    try {
+      for (int t = 0; t < threads; t++) {
+        int first = 2 + t;
+        futures.add(
+          executor.submit(() -> {
+            LatencyRecorder recorder = new LatencyRecorder();
+            start.await();
+            for (int userId = first; userId < 2 + signups; userId += threads) {
+              long begin = System.nanoTime();
+              Response response = send(
+                "POST",
+                "/api/session/" + sessionId + "/participate/" + userId,
+                null,
+                adminToken
+              );
+              recorder.record(
+                (System.nanoTime() - begin) / 1000,
+                response.status == 200 || response.status == 202
+                  ? Outcome.SUCCESS
+                  : Outcome.ERROR
+              );
+              if (response.status == 200) {
+                seated.incrementAndGet();
+              } else if (response.status == 202) {
+                waitlisted.incrementAndGet();
+              }
+            }
+            return recorder;
+          })
+        );
+      }
+
+      long begin = System.nanoTime();
+      start.countDown();
+      LatencyRecorder merged = new LatencyRecorder();
+      for (Future<LatencyRecorder> future : futures) {
+        merged.addAll(future.get());
+      }
+      double elapsedSeconds = (System.nanoTime() - begin) / 1e9;
+
+      JsonNode result = objectMapper.readTree(
+        send("GET", "/api/session/" + sessionId, null, adminToken).body
+      );
+      int participants = result.get("users").size();
+      int expected = Math.min(contentionCapacity, signups);
+
+      System.out.printf(
+        "%d signups in %.2fs (%.1f req/s), p50 %.2f ms, p99 %.2f ms, " +
+        "p999 %.2f ms, %d errors%n",
+        merged.count(),
+        elapsedSeconds,
+        merged.count() / elapsedSeconds,
+        merged.percentile(50) / 1000.0,
+        merged.percentile(99) / 1000.0,
+        merged.percentile(99.9) / 1000.0,
+        merged.errors()
+      );
+      System.out.printf(
+        "seated %d, waitlisted %d, participants %d, seatsTaken %d: %s%n",
+        seated.get(),
+        waitlisted.get(),
+        participants,
+        result.get("seatsTaken").asInt(),
+        participants == expected &&
+          result.get("seatsTaken").asInt() == expected
+          ? "OK"
+          : "MISMATCH, expected " + expected
+      );
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private String login(String email) throws IOException {
+    String body = objectMapper
+      .createObjectNode()
+      .put("email", email)
+      .put("password", password)
+      .toString();
+    Response response = send("POST", "/api/auth/login", body, null);
+    if (response.status != 200) {
+      throw new IllegalStateException(
+        "Login of " + email + " failed with " + response.status
+      );
+    }
+    return objectMapper.readTree(response.body).get("token").asText();
+  }
+
+  private Map<String, LatencyRecorder> newRecorders() {
+    Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+    for (String endpoint : mix.keySet()) {
+      recorders.put(endpoint, new LatencyRecorder());
+    }
+    return recorders;
+  }
+
+  private class Worker implements Callable<Map<String, LatencyRecorder>> {
+
+    private final Random random;
+
+    private final long deadline;
+
+    private final Map<String, LatencyRecorder> recorders = newRecorders();
+
+    private final int totalWeight;
+
+    private String token;
+
+    private long userId;
+
+    Worker(long seed, long deadline) {
+      this.random = new Random(seed);
+      this.deadline = deadline;
+      int weight = 0;
+      for (int value : mix.values()) {
+        weight += value;
+      }
+      this.totalWeight = weight;
+    }
+
+    @Override
+    public Map<String, LatencyRecorder> call() throws IOException {
+      login();
+      while (System.nanoTime() < deadline) {
+        execute(pickEndpoint());
+      }
+      return recorders;
+    }
+
+    private String pickEndpoint() {
+      int roll = random.nextInt(totalWeight);
+      for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+        roll -= entry.getValue();
+        if (roll < 0) {
+          return entry.getKey();
+        }
+      }
+      return "list";
+    }
+
+    private void execute(String endpoint) throws IOException {
+      long sessionId = 1 + random.nextInt(sessions);
+      switch (endpoint) {
+        case "login":
+          login();
+          break;
+        case "list":
+          call(endpoint, "GET", "/api/session", null);
+          break;
+        case "detail":
+          call(endpoint, "GET", "/api/session/" + sessionId, null);
+          break;
+        case "participate":
+          call(
+            endpoint,
+            "POST",
+            "/api/session/" + sessionId + "/participate/" + userId,
+            null
+          );
+          break;
+        default:
+          call(
+            endpoint,
+            "DELETE",
+            "/api/session/" + sessionId + "/participate/" + userId,
+            null
+          );
+      }
+    }
+
+    private void login() throws IOException {
+      int userNumber = 2 + random.nextInt(Math.max(1, users - 1));
+      String body = objectMapper
+        .createObjectNode()
+        .put(
+          "email",
+          String.format(LoadTestDataSeeder.USER_EMAIL_FORMAT, userNumber)
+        )
+        .put("password", password)
+        .toString();
+      byte[] response = call("login", "POST", "/api/auth/login", body);
+      if (response != null) {
+        JsonNode json = objectMapper.readTree(response);
+        token = json.get("token").asText();
+        userId = json.get("id").asLong();
+      }
+    }
+
+    /** Returns the body of a 2xx response, null otherwise. */
+    private byte[] call(
+      String endpoint,
+      String method,
+      String path,
+      String body
+    ) throws IOException {
+      long start = System.nanoTime();
+      Response response = send(method, path, body, token);
+      boolean success = response.status >= 200 && response.status < 300;
+      recorders
+        .get(endpoint)
+        .record(
+          (System.nanoTime() - start) / 1000,
+          classify(endpoint, response)
+        );
+      return success ? response.body : null;
+    }
+  }
+
+  private Outcome classify(String endpoint, Response response) {
+    if (response.status >= 200 && response.status < 300) {
+      return Outcome.SUCCESS;
+    }
+    return expectedRejections
+        .getOrDefault(endpoint, Collections.emptySet())
+        .contains(response.status)
+      ? Outcome.REJECTED
+      : Outcome.ERROR;
+  }
+
+  private Response send(String method, String path, String body, String token)
+    throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path)
+      .openConnection();
+    connection.setRequestMethod(method);
+    if (token != null) {
+      connection.setRequestProperty("Authorization", "Bearer " + token);
+    }
+    if (body != null) {
+      connection.setDoOutput(true);
+      connection.setRequestProperty("Content-Type", "application/json");
+      try (OutputStream out = connection.getOutputStream()) {
+        out.write(body.getBytes(StandardCharsets.UTF_8));
+      }
+    }
+
+    int status = connection.getResponseCode();
+    boolean success = status >= 200 && status < 300;
+    return new Response(
+      status,
+      readFully(
+        success ? connection.getInputStream() : connection.getErrorStream()
+      )
+    );
+  }
+
+  private static class Response {
+
+    private final int status;
+
+    private final byte[] body;
+
+    Response(int status, byte[] body) {
+      this.status = status;
+      this.body = body;
+    }
+  }
+
+  private static byte[] readFully(InputStream in) throws IOException {
+    if (in == null) {
+      return new byte[0];
+    }
+    try (InputStream input = in) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = input.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
+    }
+  }
+}
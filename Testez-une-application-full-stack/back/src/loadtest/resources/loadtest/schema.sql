@@ -0,0 +1,63 @@
+-- Same shapes as the db/migration scripts, in a syntax H2 accepts.
+CREATE TABLE TEACHERS (
+  id INT PRIMARY KEY AUTO_INCREMENT,
+  last_name VARCHAR(40),
+  first_name VARCHAR(40),
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE SESSIONS (
+  id INT PRIMARY KEY AUTO_INCREMENT,
+  name VARCHAR(50),
+  description VARCHAR(2000),
+  date TIMESTAMP,
+  teacher_id INT,
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  version BIGINT NOT NULL DEFAULT 0,
+  capacity INT,
+  seats_taken INT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE USERS (
+  id INT PRIMARY KEY AUTO_INCREMENT,
+  last_name VARCHAR(40),
+  first_name VARCHAR(40),
+  admin BOOLEAN NOT NULL DEFAULT false,
+  email VARCHAR(255),
+  password VARCHAR(255),
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- H2 has sequences, so the pooled generators use them instead of tables.
+CREATE SEQUENCE TEACHERS_SEQ START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE SESSIONS_SEQ START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE USERS_SEQ START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE PARTICIPATE (
+  session_id INT NOT NULL,
+  user_id INT NOT NULL,
+  PRIMARY KEY (session_id, user_id)
+);
+
+CREATE INDEX IDX_PARTICIPATE_USER_SESSION ON PARTICIPATE (user_id, session_id);
+
+CREATE TABLE WAITLIST (
+  id BIGINT PRIMARY KEY AUTO_INCREMENT,
+  session_id INT NOT NULL,
+  user_id INT NOT NULL,
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  CONSTRAINT UK_WAITLIST_SESSION_USER UNIQUE (session_id, user_id)
+);
+
+CREATE INDEX IDX_WAITLIST_SESSION_ID ON WAITLIST (session_id, id);
+
+ALTER TABLE SESSIONS ADD FOREIGN KEY (teacher_id) REFERENCES TEACHERS (id);
+ALTER TABLE PARTICIPATE ADD FOREIGN KEY (user_id) REFERENCES USERS (id);
+ALTER TABLE PARTICIPATE ADD FOREIGN KEY (session_id) REFERENCES SESSIONS (id);
+ALTER TABLE WAITLIST ADD FOREIGN KEY (session_id) REFERENCES SESSIONS (id) ON DELETE CASCADE;
+ALTER TABLE WAITLIST ADD FOREIGN KEY (user_id) REFERENCES USERS (id) ON DELETE CASCADE;
+ALTER TABLE USERS ADD CONSTRAINT UK_USERS_EMAIL UNIQUE (email);
+CREATE INDEX IDX_SESSIONS_DATE_ID ON SESSIONS (date, id);
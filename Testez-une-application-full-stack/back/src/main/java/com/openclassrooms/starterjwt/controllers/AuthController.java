@@ -7,13 +7,21 @@ import com.openclassrooms.starterjwt.payload.response.JwtResponse;
 import com.openclassrooms.starterjwt.payload.response.MessageResponse;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.services.PasswordHashingPool;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCache;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import io.micrometer.core.annotation.Timed;
+import java.util.concurrent.CompletableFuture;
 import javax.validation.Valid;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -23,83 +31,150 @@ import org.springframework.web.bind.annotation.RestController;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
+@Timed(value = "api.requests", histogram = true)
 @RequestMapping("/api/auth")
 public class AuthController {
 
-  private final AuthenticationManager authenticationManager;
+  private final UserDetailsService userDetailsService;
   private final JwtUtils jwtUtils;
   private final PasswordEncoder passwordEncoder;
   private final UserRepository userRepository;
+  private final UserDetailsCache userDetailsCache;
+  private final PasswordHashingPool passwordHashingPool;
+  private final AsyncTaskExecutor mvcAsyncExecutor;
 
+  /** Checked against when the email is unknown, so both cases take as long. */
+  private final String unknownUserPassword;
+
+  /**
+   * The hashing pool only runs the password checks; the user lookup and what
+   * follows the checks run on the executor Spring MVC uses for async
+   * requests, so a slow database call cannot hold a hashing thread.
+   */
   AuthController(
-    AuthenticationManager authenticationManager,
+    UserDetailsService userDetailsService,
     PasswordEncoder passwordEncoder,
     JwtUtils jwtUtils,
-    UserRepository userRepository
+    UserRepository userRepository,
+    UserDetailsCache userDetailsCache,
+    PasswordHashingPool passwordHashingPool,
+    @Qualifier(
+      TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME
+    ) AsyncTaskExecutor mvcAsyncExecutor
   ) {
-    this.authenticationManager = authenticationManager;
+    this.userDetailsService = userDetailsService;
     this.jwtUtils = jwtUtils;
     this.passwordEncoder = passwordEncoder;
     this.userRepository = userRepository;
+    this.userDetailsCache = userDetailsCache;
+    this.passwordHashingPool = passwordHashingPool;
+    this.mvcAsyncExecutor = mvcAsyncExecutor;
+    this.unknownUserPassword = passwordEncoder.encode("userNotFoundPassword");
   }
 
+  /**
+   * Does what the DaoAuthenticationProvider would, split in three steps: the
+   * user is loaded through the cached UserDetailsService, only the password
+   * check runs on PasswordHashingPool, and the response is built from the
+   * loaded user, which already carries the id, names and admin flag.
+   */
   @PostMapping("/login")
-  public ResponseEntity<?> authenticateUser(
+  public CompletableFuture<ResponseEntity<?>> authenticateUser(
     @Valid @RequestBody LoginRequest loginRequest
   ) {
-    Authentication authentication = authenticationManager.authenticate(
-      new UsernamePasswordAuthenticationToken(
-        loginRequest.getEmail(),
-        loginRequest.getPassword()
+    return CompletableFuture
+      .supplyAsync(
+        () -> this.loadUser(loginRequest.getEmail()),
+        this.mvcAsyncExecutor
+      )
+      .thenCompose(user ->
+        this.passwordHashingPool.submit(() ->
+            this.checkPassword(user, loginRequest.getPassword())
+          )
       )
-    );
+      .thenApplyAsync(
+        userDetails -> {
+          String jwt = jwtUtils.generateJwtToken(
+            new UsernamePasswordAuthenticationToken(
+              userDetails,
+              null,
+              userDetails.getAuthorities()
+            )
+          );
 
-    SecurityContextHolder.getContext().setAuthentication(authentication);
-    String jwt = jwtUtils.generateJwtToken(authentication);
-    UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+          return ResponseEntity.ok(
+            new JwtResponse(
+              jwt,
+              userDetails.getId(),
+              userDetails.getUsername(),
+              userDetails.getFirstName(),
+              userDetails.getLastName(),
+              Boolean.TRUE.equals(userDetails.getAdmin())
+            )
+          );
+        },
+        this.mvcAsyncExecutor
+      );
+  }
 
-    boolean isAdmin = false;
-    User user =
-      this.userRepository.findByEmail(userDetails.getUsername()).orElse(null);
-    if (user != null) {
-      isAdmin = user.isAdmin();
+  /** Returns null for an unknown email, checkPassword then rejects it. */
+  private UserDetailsImpl loadUser(String email) {
+    try {
+      return (UserDetailsImpl) userDetailsService.loadUserByUsername(email);
+    } catch (UsernameNotFoundException e) {
+      return null;
     }
+  }
 
-    return ResponseEntity.ok(
-      new JwtResponse(
-        jwt,
-        userDetails.getId(),
-        userDetails.getUsername(),
-        userDetails.getFirstName(),
-        userDetails.getLastName(),
-        isAdmin
-      )
-    );
+  private UserDetailsImpl checkPassword(UserDetailsImpl user, String password) {
+    String encoded = user != null ? user.getPassword() : unknownUserPassword;
+    if (!passwordEncoder.matches(password, encoded) || user == null) {
+      throw new BadCredentialsException("Bad credentials");
+    }
+    return user;
   }
 
   @PostMapping("/register")
-  public ResponseEntity<?> registerUser(
+  public CompletableFuture<ResponseEntity<?>> registerUser(
     @Valid @RequestBody SignupRequest signUpRequest
   ) {
     if (userRepository.existsByEmail(signUpRequest.getEmail())) {
-      return ResponseEntity
-        .badRequest()
-        .body(new MessageResponse("Error: Email is already taken!"));
+      return CompletableFuture.completedFuture(emailTaken());
     }
 
-    // Create new user's account
-    User user = new User(
-      signUpRequest.getEmail(),
-      signUpRequest.getLastName(),
-      signUpRequest.getFirstName(),
-      passwordEncoder.encode(signUpRequest.getPassword()),
-      false
-    );
+    return this.passwordHashingPool.submit(() ->
+        passwordEncoder.encode(signUpRequest.getPassword())
+      )
+      .thenApplyAsync(
+        encodedPassword -> {
+          // Create new user's account
+          User user = new User(
+            signUpRequest.getEmail(),
+            signUpRequest.getLastName(),
+            signUpRequest.getFirstName(),
+            encodedPassword,
+            false
+          );
+
+          try {
+            userRepository.save(user);
+          } catch (DataIntegrityViolationException e) {
+            // Registered by another request since the check above.
+            return emailTaken();
+          }
+          userDetailsCache.invalidate(user.getEmail());
 
-    userRepository.save(user);
+          return ResponseEntity.ok(
+            new MessageResponse("User registered successfully!")
+          );
+        },
+        this.mvcAsyncExecutor
+      );
+  }
 
-    return ResponseEntity.ok(
-      new MessageResponse("User registered successfully!")
-    );
+  private static ResponseEntity<?> emailTaken() {
+    return ResponseEntity
+      .badRequest()
+      .body(new MessageResponse("Error: Email is already taken!"));
   }
 }
@@ -0,0 +1,56 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.payload.response.ImportReport;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.services.CsvImportService;
+import io.micrometer.core.annotation.Timed;
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+/** Admin-only CSV imports; the request body is the raw CSV file. */
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@Timed(value = "api.requests", histogram = true)
+@RequestMapping("/api/import")
+public class ImportController {
+
+  private final CsvImportService csvImportService;
+
+  public ImportController(CsvImportService csvImportService) {
+    this.csvImportService = csvImportService;
+  }
+
+  @PostMapping(value = "/users", consumes = "text/csv")
+  public ResponseEntity<?> importUsers(
+    @AuthenticationPrincipal UserDetailsImpl principal,
+    InputStream csv
+  ) throws IOException {
+    if (!isAdmin(principal)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    ImportReport report = this.csvImportService.importUsers(csv);
+    return ResponseEntity.ok().body(report);
+  }
+
+  @PostMapping(value = "/sessions", consumes = "text/csv")
+  public ResponseEntity<?> importSessions(
+    @AuthenticationPrincipal UserDetailsImpl principal,
+    InputStream csv
+  ) throws IOException {
+    if (!isAdmin(principal)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    ImportReport report = this.csvImportService.importSessions(csv);
+    return ResponseEntity.ok().body(report);
+  }
+
+  private static boolean isAdmin(UserDetailsImpl principal) {
+    return principal != null && Boolean.TRUE.equals(principal.getAdmin());
+  }
+}
@@ -2,51 +2,185 @@ package com.openclassrooms.starterjwt.controllers;
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.models.ParticipationStatus;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.pagination.KeysetPage;
+import com.openclassrooms.starterjwt.payload.request.RecurrenceRequest;
+import com.openclassrooms.starterjwt.repository.projection.SessionBrief;
+import com.openclassrooms.starterjwt.repository.projection.SessionSummary;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.services.SessionExportService;
 import com.openclassrooms.starterjwt.services.SessionService;
+import io.micrometer.core.annotation.Timed;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import javax.validation.Valid;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
+@Timed(value = "api.requests", histogram = true)
 @RequestMapping("/api/session")
 @Log4j2
 public class SessionController {
 
+  private static final MediaType NDJSON = MediaType.parseMediaType(
+    "application/x-ndjson"
+  );
+
+  private static final MediaType CSV = MediaType.parseMediaType(
+    "text/csv;charset=UTF-8"
+  );
+
   private final SessionMapper sessionMapper;
   private final SessionService sessionService;
+  private final SessionExportService sessionExportService;
 
   public SessionController(
     SessionService sessionService,
-    SessionMapper sessionMapper
+    SessionMapper sessionMapper,
+    SessionExportService sessionExportService
   ) {
     this.sessionMapper = sessionMapper;
     this.sessionService = sessionService;
+    this.sessionExportService = sessionExportService;
+  }
+
+  /** Admin only: streams all sessions and attendees as NDJSON or CSV. */
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> export(
+    @AuthenticationPrincipal UserDetailsImpl principal,
+    @RequestParam(value = "format", defaultValue = "ndjson") String format
+  ) {
+    if (!isAdmin(principal)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    if ("csv".equalsIgnoreCase(format)) {
+      return ResponseEntity
+        .ok()
+        .contentType(CSV)
+        .header(
+          HttpHeaders.CONTENT_DISPOSITION,
+          "attachment; filename=\"sessions.csv\""
+        )
+        .body(this.sessionExportService::writeCsv);
+    }
+    if ("ndjson".equalsIgnoreCase(format)) {
+      return ResponseEntity
+        .ok()
+        .contentType(NDJSON)
+        .body(this.sessionExportService::writeNdjson);
+    }
+    return ResponseEntity.badRequest().build();
   }
 
   @GetMapping("/{id}")
-  public ResponseEntity<?> findById(@PathVariable("id") String id) {
+  public ResponseEntity<?> findById(
+    @PathVariable("id") String id,
+    WebRequest request
+  ) {
     try {
-      Session session = this.sessionService.getById(Long.valueOf(id));
+      Long sessionId = Long.valueOf(id);
+      String etag = this.sessionService.getEtag(sessionId);
+      if (etag != null && request.checkNotModified(etag)) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+      }
+
+      Session session = this.sessionService.getById(sessionId);
 
       if (session == null) {
         return ResponseEntity.notFound().build();
       }
 
-      return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
+      List<Long> userIds = this.sessionService.findParticipantIds(sessionId);
+
+      return ResponseEntity
+        .ok()
+        .eTag(etag)
+        .body(this.sessionMapper.toDto(session, userIds));
     } catch (NumberFormatException e) {
       return ResponseEntity.badRequest().build();
     }
   }
 
   @GetMapping
-  public ResponseEntity<?> findAll() {
+  public ResponseEntity<?> findAll(WebRequest request) {
+    String etag = this.sessionService.getCollectionEtag();
+    if (request.checkNotModified(etag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+    }
+
     List<Session> sessions = this.sessionService.findAll();
+    Map<Long, List<Long>> userIds =
+      this.sessionService.findParticipantIds(sessions);
+
+    return ResponseEntity
+      .ok()
+      .eTag(etag)
+      .body(this.sessionMapper.toDto(sessions, userIds));
+  }
+
+  @GetMapping("/page")
+  public ResponseEntity<?> findPage(
+    @RequestParam(value = "cursor", required = false) String cursor,
+    @RequestParam(value = "size", required = false) Integer size
+  ) {
+    KeysetPage<SessionSummary> page =
+      this.sessionService.findPage(cursor, size);
+
+    return ResponseEntity
+      .ok()
+      .body(page.map(summaries -> this.sessionMapper.toSummaryDto(summaries)));
+  }
+
+  @GetMapping("/range")
+  public ResponseEntity<?> findRange(
+    @RequestParam("from") @DateTimeFormat(
+      iso = DateTimeFormat.ISO.DATE_TIME,
+      fallbackPatterns = { "yyyy-MM-dd'T'HH:mm:ssXXX", "yyyy-MM-dd" }
+    ) Date from,
+    @RequestParam("to") @DateTimeFormat(
+      iso = DateTimeFormat.ISO.DATE_TIME,
+      fallbackPatterns = { "yyyy-MM-dd'T'HH:mm:ssXXX", "yyyy-MM-dd" }
+    ) Date to,
+    @RequestParam(value = "teacherId", required = false) Long teacherId,
+    @RequestParam(value = "cursor", required = false) String cursor,
+    @RequestParam(value = "size", required = false) Integer size
+  ) {
+    KeysetPage<SessionSummary> page =
+      this.sessionService.findRange(from, to, teacherId, cursor, size);
+
+    return ResponseEntity
+      .ok()
+      .body(page.map(summaries -> this.sessionMapper.toSummaryDto(summaries)));
+  }
+
+  @GetMapping("/mine")
+  public ResponseEntity<?> findMine(
+    @AuthenticationPrincipal UserDetailsImpl principal,
+    @RequestParam(value = "cursor", required = false) String cursor,
+    @RequestParam(value = "size", required = false) Integer size
+  ) {
+    if (principal == null) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+
+    KeysetPage<SessionBrief> page =
+      this.sessionService.findPageForUser(principal.getId(), cursor, size);
 
-    return ResponseEntity.ok().body(this.sessionMapper.toDto(sessions));
+    return ResponseEntity
+      .ok()
+      .body(page.map(briefs -> this.sessionMapper.toBriefDto(briefs)));
   }
 
   @PostMapping
@@ -60,6 +194,21 @@ public class SessionController {
     return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
   }
 
+  @PostMapping("{id}/recurrences")
+  public ResponseEntity<?> createSeries(
+    @PathVariable("id") String id,
+    @Valid @RequestBody RecurrenceRequest recurrence
+  ) {
+    try {
+      List<Session> sessions =
+        this.sessionService.createSeries(Long.parseLong(id), recurrence);
+
+      return ResponseEntity.ok().body(this.sessionMapper.toDto(sessions));
+    } catch (NumberFormatException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
   @PutMapping("{id}")
   public ResponseEntity<?> update(
     @PathVariable("id") String id,
@@ -100,12 +249,39 @@ public class SessionController {
     @PathVariable("userId") String userId
   ) {
     try {
-      this.sessionService.participate(
-          Long.parseLong(id),
-          Long.parseLong(userId)
-        );
+      ParticipationStatus status =
+        this.sessionService.participate(
+            Long.parseLong(id),
+            Long.parseLong(userId)
+          );
 
-      return ResponseEntity.ok().build();
+      return ResponseEntity
+        .status(
+          status == ParticipationStatus.WAITLISTED
+            ? HttpStatus.ACCEPTED
+            : HttpStatus.OK
+        )
+        .body(status);
+    } catch (NumberFormatException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /** Admin only: enrols other users. */
+  @PostMapping("{id}/participants")
+  public ResponseEntity<?> participateAll(
+    @AuthenticationPrincipal UserDetailsImpl principal,
+    @PathVariable("id") String id,
+    @RequestBody List<Long> userIds
+  ) {
+    if (!isAdmin(principal)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    try {
+      return ResponseEntity
+        .ok()
+        .body(this.sessionService.participateAll(Long.parseLong(id), userIds));
     } catch (NumberFormatException e) {
       return ResponseEntity.badRequest().build();
     }
@@ -127,4 +303,8 @@ public class SessionController {
       return ResponseEntity.badRequest().build();
     }
   }
+
+  private static boolean isAdmin(UserDetailsImpl principal) {
+    return principal != null && Boolean.TRUE.equals(principal.getAdmin());
+  }
 }
@@ -2,13 +2,18 @@ package com.openclassrooms.starterjwt.controllers;
 
 import com.openclassrooms.starterjwt.mapper.TeacherMapper;
 import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.services.ETags;
 import com.openclassrooms.starterjwt.services.TeacherService;
+import io.micrometer.core.annotation.Timed;
 import java.util.List;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
+@Timed(value = "api.requests", histogram = true)
 @RequestMapping("/api/teacher")
 public class TeacherController {
 
@@ -24,7 +29,10 @@ public class TeacherController {
   }
 
   @GetMapping("/{id}")
-  public ResponseEntity<?> findById(@PathVariable("id") String id) {
+  public ResponseEntity<?> findById(
+    @PathVariable("id") String id,
+    WebRequest request
+  ) {
     try {
       Teacher teacher = this.teacherService.findById(Long.valueOf(id));
 
@@ -32,16 +40,32 @@ public class TeacherController {
         return ResponseEntity.notFound().build();
       }
 
-      return ResponseEntity.ok().body(this.teacherMapper.toDto(teacher));
+      String etag = ETags.of(teacher.getId(), teacher.getUpdatedAt());
+      if (request.checkNotModified(etag)) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+      }
+
+      return ResponseEntity
+        .ok()
+        .eTag(etag)
+        .body(this.teacherMapper.toDto(teacher));
     } catch (NumberFormatException e) {
       return ResponseEntity.badRequest().build();
     }
   }
 
   @GetMapping
-  public ResponseEntity<?> findAll() {
+  public ResponseEntity<?> findAll(WebRequest request) {
+    String etag = this.teacherService.getEtag();
+    if (request.checkNotModified(etag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+    }
+
     List<Teacher> teachers = this.teacherService.findAll();
 
-    return ResponseEntity.ok().body(this.teacherMapper.toDto(teachers));
+    return ResponseEntity
+      .ok()
+      .eTag(etag)
+      .body(this.teacherMapper.toDto(teachers));
   }
 }
@@ -0,0 +1,20 @@
+package com.openclassrooms.starterjwt.dto;
+
+import java.util.Date;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionBriefDto {
+
+  private Long id;
+
+  private String name;
+
+  private Date date;
+
+  private Long teacher_id;
+}
@@ -3,6 +3,7 @@ package com.openclassrooms.starterjwt.dto;
 import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.List;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
@@ -33,7 +34,14 @@ public class SessionDto {
 
   private List<Long> users;
 
+  @Min(1)
+  private Integer capacity;
+
+  private Integer seatsTaken;
+
   private LocalDateTime createdAt;
 
   private LocalDateTime updatedAt;
+
+  private Long version;
 }
@@ -1,17 +1,27 @@
 package com.openclassrooms.starterjwt.mapper;
 
+import com.openclassrooms.starterjwt.dto.SessionBriefDto;
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.projection.SessionBrief;
+import com.openclassrooms.starterjwt.repository.projection.SessionSummary;
 import com.openclassrooms.starterjwt.services.TeacherService;
 import com.openclassrooms.starterjwt.services.UserService;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Mappings;
+import org.mapstruct.Named;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -46,7 +56,7 @@ public abstract class SessionMapper
       ),
       @Mapping(
         target = "users",
-        expression = "java(Optional.ofNullable(sessionDto.getUsers()).orElseGet(Collections::emptyList).stream().map(user_id -> { User user = this.userService.findById(user_id); if (user != null) { return user; } return null; }).collect(Collectors.toList()))"
+        expression = "java(this.resolveUsers(sessionDto.getUsers()))"
       ),
     }
   )
@@ -63,4 +73,74 @@ public abstract class SessionMapper
     }
   )
   public abstract SessionDto toDto(Session session);
+
+  protected List<User> resolveUsers(List<Long> userIds) {
+    if (userIds == null || userIds.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    Map<Long, User> usersById =
+      this.userService.findAllById(userIds)
+        .stream()
+        .collect(Collectors.toMap(User::getId, Function.identity()));
+
+    return userIds
+      .stream()
+      .distinct()
+      .map(usersById::get)
+      .filter(Objects::nonNull)
+      .collect(Collectors.toList());
+  }
+
+  @Named("withoutUsers")
+  @Mappings(
+    {
+      @Mapping(source = "description", target = "description"),
+      @Mapping(source = "session.teacher.id", target = "teacher_id"),
+      @Mapping(target = "users", ignore = true),
+    }
+  )
+  public abstract SessionDto toDtoWithoutUsers(Session session);
+
+  public SessionDto toDto(Session session, List<Long> userIds) {
+    SessionDto sessionDto = toDtoWithoutUsers(session);
+    if (sessionDto != null) {
+      sessionDto.setUsers(new ArrayList<>(userIds));
+    }
+
+    return sessionDto;
+  }
+
+  public List<SessionDto> toDto(
+    List<Session> sessions,
+    Map<Long, List<Long>> userIdsBySession
+  ) {
+    if (sessions == null) {
+      return null;
+    }
+
+    List<SessionDto> sessionDtos = new ArrayList<>(sessions.size());
+    for (Session session : sessions) {
+      sessionDtos.add(
+        toDto(
+          session,
+          userIdsBySession.getOrDefault(session.getId(), Collections.emptyList())
+        )
+      );
+    }
+
+    return sessionDtos;
+  }
+
+  @Mapping(source = "teacherId", target = "teacher_id")
+  public abstract SessionSummaryDto toSummaryDto(SessionSummary summary);
+
+  public abstract List<SessionSummaryDto> toSummaryDto(
+    List<SessionSummary> summaries
+  );
+
+  @Mapping(source = "teacherId", target = "teacher_id")
+  public abstract SessionBriefDto toBriefDto(SessionBrief brief);
+
+  public abstract List<SessionBriefDto> toBriefDto(List<SessionBrief> briefs);
 }
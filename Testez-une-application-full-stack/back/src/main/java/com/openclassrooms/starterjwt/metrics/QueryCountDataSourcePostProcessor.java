@@ -0,0 +1,20 @@
+package com.openclassrooms.starterjwt.metrics;
+
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/** Routes every DataSource of the context through QueryCountingDataSource. */
+@Component
+public class QueryCountDataSourcePostProcessor implements BeanPostProcessor {
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (
+      bean instanceof DataSource && !(bean instanceof QueryCountingDataSource)
+    ) {
+      return new QueryCountingDataSource((DataSource) bean);
+    }
+    return bean;
+  }
+}
@@ -0,0 +1,129 @@
+package com.openclassrooms.starterjwt.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class QueryCountFilter extends OncePerRequestFilter {
+
+  static final String METRIC = "http.server.requests.queries";
+
+  public static final String COUNTER_ATTRIBUTE =
+    QueryCountFilter.class.getName() + ".COUNTER";
+
+  private static final Logger logger = LoggerFactory.getLogger(
+    QueryCountFilter.class
+  );
+
+  private final MeterRegistry meterRegistry;
+
+  private final long threshold;
+
+  private final boolean recordViolations;
+
+  /**
+   * With recordViolations, meant for tests, requests above the threshold are
+   * also kept on the request thread for QueryBudget to fail on. The response
+   * is already committed by then, so the request itself never fails.
+   */
+  public QueryCountFilter(
+    MeterRegistry meterRegistry,
+    @Value("${oc.app.queryCount.threshold:10}") long threshold,
+    @Value("${oc.app.queryCount.recordViolations:false}") boolean recordViolations
+  ) {
+    this.meterRegistry = meterRegistry;
+    this.threshold = threshold;
+    this.recordViolations = recordViolations;
+  }
+
+  /**
+   * An async request is recorded once, on its last dispatch. Its counter is
+   * kept as a request attribute; the executors that run its work (login,
+   * register, streamed exports) bind it through QueryCountTaskDecorator.
+   */
+  @Override
+  protected boolean shouldNotFilterAsyncDispatch() {
+    return false;
+  }
+
+  @Override
+  protected void doFilterInternal(
+    HttpServletRequest request,
+    HttpServletResponse response,
+    FilterChain filterChain
+  ) throws ServletException, IOException {
+    AtomicLong counter = (AtomicLong) request.getAttribute(COUNTER_ATTRIBUTE);
+    if (counter == null) {
+      counter = new AtomicLong();
+      request.setAttribute(COUNTER_ATTRIBUTE, counter);
+    }
+
+    AtomicLong previous = QueryCounter.bind(counter);
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      QueryCounter.restore(previous);
+      if (!isAsyncStarted(request)) {
+        record(request, counter.get());
+      }
+    }
+  }
+
+  private void record(HttpServletRequest request, long queries) {
+    Object pattern = request.getAttribute(
+      HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE
+    );
+    String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+    DistributionSummary
+      .builder(METRIC)
+      .description("SQL statements issued while handling a request")
+      .tag("method", request.getMethod())
+      .tag("uri", uri)
+      .register(meterRegistry)
+      .record(queries);
+
+    if (queries > threshold) {
+      logger.warn(
+        "{} {} issued {} SQL statements, above the threshold of {}",
+        request.getMethod(),
+        uri,
+        queries,
+        threshold
+      );
+      if (recordViolations) {
+        QueryCounter.recordViolation(
+          request.getMethod() +
+          " " +
+          request.getRequestURI() +
+          " issued " +
+          queries +
+          " SQL statements, above the threshold of " +
+          threshold
+        );
+      }
+    } else {
+      logger.debug(
+        "{} {} issued {} SQL statements",
+        request.getMethod(),
+        uri,
+        queries
+      );
+    }
+  }
+}
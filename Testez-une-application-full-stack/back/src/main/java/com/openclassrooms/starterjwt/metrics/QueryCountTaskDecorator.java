@@ -0,0 +1,18 @@
+package com.openclassrooms.starterjwt.metrics;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applied by Spring Boot to the application task executor, which also runs
+ * the async requests of Spring MVC, so their statements count toward the
+ * request that submitted them.
+ */
+@Component
+public class QueryCountTaskDecorator implements TaskDecorator {
+
+  @Override
+  public Runnable decorate(Runnable runnable) {
+    return QueryCounter.propagate(runnable);
+  }
+}
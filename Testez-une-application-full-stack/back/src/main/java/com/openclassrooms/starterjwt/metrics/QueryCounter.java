@@ -0,0 +1,79 @@
+package com.openclassrooms.starterjwt.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running count of the SQL statements executed over JDBC on the current
+ * thread. Callers measure a unit of work as the difference between two reads.
+ * A request counter can also be bound to the thread; work handed to another
+ * thread through {@link #propagate} keeps counting into it.
+ */
+public final class QueryCounter {
+
+  private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() ->
+    new long[1]
+  );
+
+  private static final ThreadLocal<List<String>> VIOLATIONS =
+    ThreadLocal.withInitial(ArrayList::new);
+
+  private static final ThreadLocal<AtomicLong> BOUND = new ThreadLocal<>();
+
+  private QueryCounter() {}
+
+  static void increment() {
+    COUNT.get()[0]++;
+    AtomicLong bound = BOUND.get();
+    if (bound != null) {
+      bound.incrementAndGet();
+    }
+  }
+
+  /** Binds {@code counter} to this thread and returns the one it replaces. */
+  static AtomicLong bind(AtomicLong counter) {
+    AtomicLong previous = BOUND.get();
+    BOUND.set(counter);
+    return previous;
+  }
+
+  static void restore(AtomicLong previous) {
+    if (previous == null) {
+      BOUND.remove();
+    } else {
+      BOUND.set(previous);
+    }
+  }
+
+  /** Runs {@code task} with the counter bound to the calling thread, if any. */
+  public static Runnable propagate(Runnable task) {
+    AtomicLong counter = BOUND.get();
+    if (counter == null) {
+      return task;
+    }
+    return () -> {
+      AtomicLong previous = bind(counter);
+      try {
+        task.run();
+      } finally {
+        restore(previous);
+      }
+    };
+  }
+
+  public static long current() {
+    return COUNT.get()[0];
+  }
+
+  static void recordViolation(String violation) {
+    VIOLATIONS.get().add(violation);
+  }
+
+  /** Returns and forgets the threshold violations recorded on this thread. */
+  public static List<String> drainViolations() {
+    List<String> violations = new ArrayList<>(VIOLATIONS.get());
+    VIOLATIONS.remove();
+    return violations;
+  }
+}
@@ -0,0 +1,97 @@
+package com.openclassrooms.starterjwt.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Counts the statements executed through this DataSource on the calling
+ * thread, whoever issues them: Hibernate, JdbcTemplate or Flyway. A JDBC
+ * batch counts once, as it is a single round trip.
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+  private static final Set<String> EXECUTE_METHODS = new HashSet<>(
+    Arrays.asList(
+      "execute",
+      "executeQuery",
+      "executeUpdate",
+      "executeLargeUpdate",
+      "executeBatch",
+      "executeLargeBatch"
+    )
+  );
+
+  public QueryCountingDataSource(DataSource targetDataSource) {
+    super(targetDataSource);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return countingConnection(super.getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password)
+    throws SQLException {
+    return countingConnection(super.getConnection(username, password));
+  }
+
+  private static Connection countingConnection(Connection connection) {
+    return proxy(
+      Connection.class,
+      (proxy, method, args) -> {
+        Object result = invoke(connection, method, args);
+        if (
+          result instanceof Statement &&
+          Statement.class.isAssignableFrom(method.getReturnType())
+        ) {
+          return countingStatement(method.getReturnType(), (Statement) result);
+        }
+        return result;
+      }
+    );
+  }
+
+  private static Object countingStatement(
+    Class<?> statementType,
+    Statement statement
+  ) {
+    return proxy(
+      statementType,
+      (proxy, method, args) -> {
+        if (EXECUTE_METHODS.contains(method.getName())) {
+          QueryCounter.increment();
+        }
+        return invoke(statement, method, args);
+      }
+    );
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+    return (T) Proxy.newProxyInstance(
+      QueryCountingDataSource.class.getClassLoader(),
+      new Class<?>[] { type },
+      handler
+    );
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args)
+    throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+}
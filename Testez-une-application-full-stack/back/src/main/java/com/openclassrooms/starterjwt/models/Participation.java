@@ -0,0 +1,28 @@
+package com.openclassrooms.starterjwt.models;
+
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(
+  name = "PARTICIPATE",
+  indexes = {
+    @Index(
+      name = "IDX_PARTICIPATE_USER_SESSION",
+      columnList = "user_id, session_id"
+    ),
+  }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Participation {
+
+  @EmbeddedId
+  private ParticipationId id;
+}
@@ -0,0 +1,23 @@
+package com.openclassrooms.starterjwt.models;
+
+import java.io.Serializable;
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParticipationId implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  @Column(name = "session_id", nullable = false)
+  private Long sessionId;
+
+  @Column(name = "user_id", nullable = false)
+  private Long userId;
+}
@@ -0,0 +1,9 @@
+package com.openclassrooms.starterjwt.models;
+
+/** Per-user result of a bulk enrolment. */
+public enum ParticipationOutcome {
+  ADDED,
+  ALREADY_PRESENT,
+  WAITLISTED,
+  UNKNOWN_USER,
+}
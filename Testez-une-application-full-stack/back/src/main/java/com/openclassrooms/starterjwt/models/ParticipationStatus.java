@@ -0,0 +1,6 @@
+package com.openclassrooms.starterjwt.models;
+
+public enum ParticipationStatus {
+  PARTICIPATING,
+  WAITLISTED,
+}
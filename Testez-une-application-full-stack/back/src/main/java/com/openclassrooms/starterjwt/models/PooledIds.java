@@ -0,0 +1,21 @@
+package com.openclassrooms.starterjwt.models;
+
+/**
+ * Id generation shared by the entities inserted in bulk. Each call to the
+ * sequence reserves a block of INCREMENT_SIZE ids handed out in memory, so
+ * Hibernate no longer has to run each INSERT to learn its id and can batch
+ * them. MySQL has no sequences: the generator then falls back to a one-row
+ * {table}_SEQ table (see V5__pooled_id_tables.sql).
+ */
+public final class PooledIds {
+
+  public static final String STRATEGY =
+    "org.hibernate.id.enhanced.SequenceStyleGenerator";
+
+  /** Also the hibernate.jdbc.batch_size, so one block fills one batch. */
+  public static final String INCREMENT_SIZE = "50";
+
+  public static final String OPTIMIZER = "pooled-lo";
+
+  private PooledIds() {}
+}
@@ -4,17 +4,23 @@ import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.List;
 import javax.persistence.*;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 import lombok.*;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 @Entity
-@Table(name = "SESSIONS")
+@Table(
+  name = "SESSIONS",
+  indexes = { @Index(name = "IDX_SESSIONS_DATE_ID", columnList = "date, id") }
+)
 @EntityListeners(AuditingEntityListener.class)
 @Data
 @Accessors(chain = true)
@@ -26,7 +32,19 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 public class Session {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(
+    strategy = GenerationType.SEQUENCE,
+    generator = "SESSIONS_SEQ"
+  )
+  @GenericGenerator(
+    name = "SESSIONS_SEQ",
+    strategy = PooledIds.STRATEGY,
+    parameters = {
+      @Parameter(name = "sequence_name", value = "SESSIONS_SEQ"),
+      @Parameter(name = "increment_size", value = PooledIds.INCREMENT_SIZE),
+      @Parameter(name = "optimizer", value = PooledIds.OPTIMIZER),
+    }
+  )
   private Long id;
 
   @NotBlank
@@ -40,16 +58,24 @@ public class Session {
   @Size(max = 2500)
   private String description;
 
+  @Min(1)
+  private Integer capacity;
+
+  /** Written by the seat queries of SessionRepository only. */
+  @Column(name = "seats_taken", updatable = false)
+  private Integer seatsTaken;
+
   @OneToOne
   @JoinColumn(name = "teacher_id", referencedColumnName = "id")
   private Teacher teacher;
 
-  @ManyToMany(fetch = FetchType.EAGER)
+  @ManyToMany(fetch = FetchType.LAZY)
   @JoinTable(
     name = "PARTICIPATE",
     joinColumns = @JoinColumn(name = "session_id"),
     inverseJoinColumns = @JoinColumn(name = "user_id")
   )
+  @ToString.Exclude
   private List<User> users;
 
   @CreatedDate
@@ -59,4 +85,7 @@ public class Session {
   @UpdateTimestamp
   @Column(name = "updated_at")
   private LocalDateTime updatedAt;
+
+  @Version
+  private Long version;
 }
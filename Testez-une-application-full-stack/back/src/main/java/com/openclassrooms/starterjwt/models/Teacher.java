@@ -6,6 +6,8 @@ import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
 import lombok.*;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -23,7 +25,19 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 public class Teacher {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(
+    strategy = GenerationType.SEQUENCE,
+    generator = "TEACHERS_SEQ"
+  )
+  @GenericGenerator(
+    name = "TEACHERS_SEQ",
+    strategy = PooledIds.STRATEGY,
+    parameters = {
+      @Parameter(name = "sequence_name", value = "TEACHERS_SEQ"),
+      @Parameter(name = "increment_size", value = PooledIds.INCREMENT_SIZE),
+      @Parameter(name = "optimizer", value = PooledIds.OPTIMIZER),
+    }
+  )
   private Long id;
 
   @NotBlank
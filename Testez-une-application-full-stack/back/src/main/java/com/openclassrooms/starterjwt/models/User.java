@@ -6,6 +6,8 @@ import javax.validation.constraints.Email;
 import javax.validation.constraints.Size;
 import lombok.*;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -13,7 +15,9 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 @Entity
 @Table(
   name = "USERS",
-  uniqueConstraints = { @UniqueConstraint(columnNames = "email") }
+  uniqueConstraints = {
+    @UniqueConstraint(name = "UK_USERS_EMAIL", columnNames = "email"),
+  }
 )
 @Data
 @Accessors(chain = true)
@@ -27,7 +31,16 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 public class User {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "USERS_SEQ")
+  @GenericGenerator(
+    name = "USERS_SEQ",
+    strategy = PooledIds.STRATEGY,
+    parameters = {
+      @Parameter(name = "sequence_name", value = "USERS_SEQ"),
+      @Parameter(name = "increment_size", value = PooledIds.INCREMENT_SIZE),
+      @Parameter(name = "optimizer", value = PooledIds.OPTIMIZER),
+    }
+  )
   private Long id;
 
   @NonNull
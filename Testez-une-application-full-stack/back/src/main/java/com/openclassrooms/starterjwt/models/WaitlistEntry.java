@@ -0,0 +1,46 @@
+package com.openclassrooms.starterjwt.models;
+
+import java.time.LocalDateTime;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(
+  name = "WAITLIST",
+  uniqueConstraints = {
+    @UniqueConstraint(
+      name = "UK_WAITLIST_SESSION_USER",
+      columnNames = { "session_id", "user_id" }
+    ),
+  },
+  indexes = {
+    @Index(name = "IDX_WAITLIST_SESSION_ID", columnList = "session_id, id"),
+  }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntry {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "session_id", nullable = false)
+  private Long sessionId;
+
+  @Column(name = "user_id", nullable = false)
+  private Long userId;
+
+  @Column(name = "created_at", insertable = false, updatable = false)
+  private LocalDateTime createdAt;
+}
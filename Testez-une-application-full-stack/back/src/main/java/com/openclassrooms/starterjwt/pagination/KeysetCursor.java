@@ -0,0 +1,60 @@
+package com.openclassrooms.starterjwt.pagination;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Position of the last row of a page ordered by (date, id). Encoded as an
+ * opaque url-safe token so clients never build seek predicates themselves.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+@AllArgsConstructor(staticName = "of")
+public class KeysetCursor {
+
+  private static final String SEPARATOR = ":";
+
+  private final Date date;
+
+  private final Long id;
+
+  public String encode() {
+    String raw = date.getTime() + SEPARATOR + id;
+
+    return Base64
+      .getUrlEncoder()
+      .withoutPadding()
+      .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static KeysetCursor decode(String token) {
+    if (token == null || token.isEmpty()) {
+      return null;
+    }
+
+    try {
+      String raw = new String(
+        Base64.getUrlDecoder().decode(token),
+        StandardCharsets.UTF_8
+      );
+      String[] parts = raw.split(SEPARATOR);
+      if (parts.length != 2) {
+        throw new BadRequestException();
+      }
+
+      return new KeysetCursor(
+        new Date(Long.parseLong(parts[0])),
+        Long.valueOf(parts[1])
+      );
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException();
+    }
+  }
+}
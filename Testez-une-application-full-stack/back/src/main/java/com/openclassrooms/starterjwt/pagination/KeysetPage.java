@@ -0,0 +1,51 @@
+package com.openclassrooms.starterjwt.pagination;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class KeysetPage<T> {
+
+  public static final int DEFAULT_SIZE = 20;
+
+  public static final int MAX_SIZE = 100;
+
+  private final List<T> items;
+
+  private final String nextCursor;
+
+  public static int limit(Integer requestedSize) {
+    if (requestedSize == null || requestedSize <= 0) {
+      return DEFAULT_SIZE;
+    }
+
+    return Math.min(requestedSize, MAX_SIZE);
+  }
+
+  /**
+   * Builds a page from rows fetched with {@code limit + 1}: the extra row only
+   * tells whether a next page exists and is never returned.
+   */
+  public static <T> KeysetPage<T> of(
+    List<T> rows,
+    int limit,
+    Function<T, KeysetCursor> cursorOf
+  ) {
+    if (rows.size() <= limit) {
+      return new KeysetPage<>(rows, null);
+    }
+
+    List<T> items = new ArrayList<>(rows.subList(0, limit));
+    String nextCursor = cursorOf.apply(items.get(limit - 1)).encode();
+
+    return new KeysetPage<>(items, nextCursor);
+  }
+
+  public <R> KeysetPage<R> map(Function<List<T>, List<R>> mapper) {
+    return new KeysetPage<>(mapper.apply(this.items), this.nextCursor);
+  }
+}
@@ -0,0 +1,45 @@
+package com.openclassrooms.starterjwt.payload.request;
+
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * Repeats a session every interval days, weeks or months, either count times
+ * or up to the until date (inclusive). Exactly one of the two must be set.
+ */
+@Data
+public class RecurrenceRequest {
+
+  public enum Frequency {
+    DAILY(ChronoUnit.DAYS),
+    WEEKLY(ChronoUnit.WEEKS),
+    MONTHLY(ChronoUnit.MONTHS);
+
+    private final ChronoUnit unit;
+
+    Frequency(ChronoUnit unit) {
+      this.unit = unit;
+    }
+
+    public ChronoUnit getUnit() {
+      return unit;
+    }
+  }
+
+  @NotNull
+  private Frequency frequency;
+
+  @Min(1)
+  private int interval = 1;
+
+  @Min(1)
+  private Integer count;
+
+  private Date until;
+
+  /** Also enrol the participants of the template session. */
+  private boolean copyParticipants;
+}
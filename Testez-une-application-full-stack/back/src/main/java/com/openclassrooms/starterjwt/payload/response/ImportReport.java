@@ -0,0 +1,44 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of a CSV import; lines are 1-based and include the header. Only the
+ * first MAX_ERRORS errors are kept, errorCount counts them all.
+ */
+@Getter
+public class ImportReport {
+
+  public static final int MAX_ERRORS = 100;
+
+  private int rows;
+  private int imported;
+  private int errorCount;
+  private final List<RowError> errors = new ArrayList<>();
+
+  public void rowRead() {
+    this.rows++;
+  }
+
+  public void imported(int count) {
+    this.imported += count;
+  }
+
+  public void error(long line, String message) {
+    this.errorCount++;
+    if (this.errors.size() < MAX_ERRORS) {
+      this.errors.add(new RowError(line, message));
+    }
+  }
+
+  @Getter
+  @AllArgsConstructor
+  public static class RowError {
+
+    private final long line;
+    private final String message;
+  }
+}
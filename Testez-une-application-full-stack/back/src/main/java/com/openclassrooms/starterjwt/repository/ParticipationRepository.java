@@ -0,0 +1,90 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.Participation;
+import com.openclassrooms.starterjwt.models.ParticipationId;
+import com.openclassrooms.starterjwt.repository.projection.SessionBrief;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ParticipationRepository
+  extends
+    JpaRepository<Participation, ParticipationId>,
+    ParticipationRepositoryCustom {
+  String BRIEF_SELECT =
+    "SELECT s.id AS id, s.name AS name, s.date AS date, " +
+    "s.teacher.id AS teacherId " +
+    "FROM Participation p JOIN Session s ON s.id = p.id.sessionId " +
+    "WHERE p.id.userId = :userId ";
+
+  String BRIEF_ORDER_BY = "ORDER BY s.date ASC, s.id ASC";
+
+  @Modifying
+  @Query(
+    value = "INSERT IGNORE INTO PARTICIPATE (session_id, user_id) " +
+    "VALUES (:sessionId, :userId)",
+    nativeQuery = true
+  )
+  int insertIfAbsent(
+    @Param("sessionId") Long sessionId,
+    @Param("userId") Long userId
+  );
+
+  @Modifying
+  @Query(
+    "DELETE FROM Participation p " +
+    "WHERE p.id.sessionId = :sessionId AND p.id.userId = :userId"
+  )
+  int deleteBySessionIdAndUserId(
+    @Param("sessionId") Long sessionId,
+    @Param("userId") Long userId
+  );
+
+  @Query(
+    "SELECT p.id.userId FROM Participation p " +
+    "WHERE p.id.sessionId = :sessionId"
+  )
+  List<Long> findUserIdsBySessionId(@Param("sessionId") Long sessionId);
+
+  @Query(
+    "SELECT p.id.userId FROM Participation p " +
+    "WHERE p.id.sessionId = :sessionId AND p.id.userId IN :userIds"
+  )
+  List<Long> findUserIdsBySessionIdAndUserIdIn(
+    @Param("sessionId") Long sessionId,
+    @Param("userIds") Collection<Long> userIds
+  );
+
+  @Query(
+    "SELECT p.id.sessionId, p.id.userId FROM Participation p " +
+    "WHERE p.id.sessionId IN :sessionIds"
+  )
+  List<Object[]> findIdPairsBySessionIdIn(
+    @Param("sessionIds") Collection<Long> sessionIds
+  );
+
+  @Query(BRIEF_SELECT + BRIEF_ORDER_BY)
+  List<SessionBrief> findFirstPageByUserId(
+    @Param("userId") Long userId,
+    Pageable pageable
+  );
+
+  @Query(
+    BRIEF_SELECT +
+    "AND (s.date > :date OR (s.date = :date AND s.id > :id)) " +
+    BRIEF_ORDER_BY
+  )
+  List<SessionBrief> findPageByUserIdAfter(
+    @Param("userId") Long userId,
+    @Param("date") Date date,
+    @Param("id") Long id,
+    Pageable pageable
+  );
+}
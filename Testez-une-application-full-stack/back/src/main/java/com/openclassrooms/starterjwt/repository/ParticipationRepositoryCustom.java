@@ -0,0 +1,11 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.util.List;
+
+public interface ParticipationRepositoryCustom {
+  /**
+   * Inserts the missing (session, user) rows in one JDBC batch and returns
+   * the update count of each row, 0 for a row that already existed.
+   */
+  int[] batchInsert(Long sessionId, List<Long> userIds);
+}
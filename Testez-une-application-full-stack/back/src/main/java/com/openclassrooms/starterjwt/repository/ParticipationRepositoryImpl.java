@@ -0,0 +1,33 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class ParticipationRepositoryImpl
+  implements ParticipationRepositoryCustom {
+
+  private static final String INSERT_SQL =
+    "INSERT IGNORE INTO PARTICIPATE (session_id, user_id) VALUES (?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ParticipationRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public int[] batchInsert(Long sessionId, List<Long> userIds) {
+    if (userIds.isEmpty()) {
+      return new int[0];
+    }
+
+    return this.jdbcTemplate.batchUpdate(
+        INSERT_SQL,
+        userIds
+          .stream()
+          .map(userId -> new Object[] { sessionId, userId })
+          .collect(Collectors.toList())
+      );
+  }
+}
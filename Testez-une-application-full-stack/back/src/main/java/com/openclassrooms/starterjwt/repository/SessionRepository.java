@@ -1,8 +1,150 @@
 package com.openclassrooms.starterjwt.repository;
 
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.repository.projection.CollectionVersion;
+import com.openclassrooms.starterjwt.repository.projection.SeatAvailability;
+import com.openclassrooms.starterjwt.repository.projection.SessionSummary;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface SessionRepository extends JpaRepository<Session, Long> {}
+public interface SessionRepository extends JpaRepository<Session, Long> {
+  /** Loads the teachers in the same statement instead of one per teacher. */
+  @Override
+  @EntityGraph(attributePaths = "teacher")
+  List<Session> findAll();
+
+  String SUMMARY_SELECT =
+    "SELECT s.id AS id, s.name AS name, s.date AS date, " +
+    "s.description AS description, t.id AS teacherId, " +
+    "COUNT(p.id.userId) AS participantCount, " +
+    "s.createdAt AS createdAt, s.updatedAt AS updatedAt " +
+    "FROM Session s LEFT JOIN s.teacher t " +
+    "LEFT JOIN Participation p ON p.id.sessionId = s.id ";
+
+  String SUMMARY_GROUP_BY =
+    "GROUP BY s.id, s.name, s.date, s.description, t.id, " +
+    "s.createdAt, s.updatedAt " +
+    "ORDER BY s.date ASC, s.id ASC";
+
+  @Query(SUMMARY_SELECT + SUMMARY_GROUP_BY)
+  List<SessionSummary> findFirstPage(Pageable pageable);
+
+  @Query(
+    SUMMARY_SELECT +
+    "WHERE s.date > :date OR (s.date = :date AND s.id > :id) " +
+    SUMMARY_GROUP_BY
+  )
+  List<SessionSummary> findPageAfter(
+    @Param("date") Date date,
+    @Param("id") Long id,
+    Pageable pageable
+  );
+
+  /** Seeks from the cursor within [from, to) so only the window is scanned. */
+  @Query(
+    SUMMARY_SELECT +
+    "WHERE s.date >= :from AND s.date < :to " +
+    "AND (s.date > :afterDate OR (s.date = :afterDate AND s.id > :afterId)) " +
+    "AND (:teacherId IS NULL OR t.id = :teacherId) " +
+    SUMMARY_GROUP_BY
+  )
+  List<SessionSummary> findRangePage(
+    @Param("from") Date from,
+    @Param("to") Date to,
+    @Param("teacherId") Long teacherId,
+    @Param("afterDate") Date afterDate,
+    @Param("afterId") Long afterId,
+    Pageable pageable
+  );
+
+  @Query("SELECT s.version FROM Session s WHERE s.id = :id")
+  Optional<Long> findVersionById(@Param("id") Long id);
+
+  @Query(
+    "SELECT COUNT(s) AS total, SUM(s.version) AS versionSum, " +
+    "MAX(s.updatedAt) AS lastUpdatedAt " +
+    "FROM Session s"
+  )
+  CollectionVersion findCollectionVersion();
+
+  /**
+   * Takes a seat in a single conditional statement, so concurrent callers can
+   * never oversell. Returns 0 when the session is full. Participation changes
+   * do not go through the entity, so the version is bumped here too.
+   */
+  @Modifying
+  @Query(
+    "UPDATE Session s " +
+    "SET s.seatsTaken = s.seatsTaken + 1, s.version = s.version + 1, " +
+    "s.updatedAt = CURRENT_TIMESTAMP " +
+    "WHERE s.id = :id " +
+    "AND (s.capacity IS NULL OR s.seatsTaken < s.capacity)"
+  )
+  int reserveSeat(@Param("id") Long id);
+
+  @Modifying
+  @Query(
+    "UPDATE Session s " +
+    "SET s.seatsTaken = s.seatsTaken - 1, s.version = s.version + 1, " +
+    "s.updatedAt = CURRENT_TIMESTAMP " +
+    "WHERE s.id = :id AND s.seatsTaken > 0"
+  )
+  int releaseSeat(@Param("id") Long id);
+
+  /** Undoes a releaseSeat of this transaction, which still holds the row. */
+  @Modifying
+  @Query(
+    "UPDATE Session s SET s.seatsTaken = s.seatsTaken + 1 WHERE s.id = :id"
+  )
+  int restoreSeat(@Param("id") Long id);
+
+  @Query(
+    "SELECT s.capacity AS capacity, s.seatsTaken AS seatsTaken " +
+    "FROM Session s WHERE s.id = :id"
+  )
+  Optional<SeatAvailability> findSeatAvailability(@Param("id") Long id);
+
+  /** All-or-nothing variant of reserveSeat for bulk enrolment. */
+  @Modifying
+  @Query(
+    "UPDATE Session s " +
+    "SET s.seatsTaken = s.seatsTaken + :count, s.version = s.version + 1, " +
+    "s.updatedAt = CURRENT_TIMESTAMP " +
+    "WHERE s.id = :id " +
+    "AND (s.capacity IS NULL OR s.seatsTaken + :count <= s.capacity)"
+  )
+  int reserveSeats(@Param("id") Long id, @Param("count") int count);
+
+  @Modifying
+  @Query(
+    "UPDATE Session s " +
+    "SET s.seatsTaken = s.seatsTaken - :count, s.version = s.version + 1, " +
+    "s.updatedAt = CURRENT_TIMESTAMP " +
+    "WHERE s.id = :id AND s.seatsTaken >= :count"
+  )
+  int releaseSeats(@Param("id") Long id, @Param("count") int count);
+
+  /**
+   * Recounts the seats after the participant list was replaced. Returns 0,
+   * leaving the row as is, when the participants exceed the capacity. Flushes
+   * the pending entity update first and clears the persistence context after,
+   * so the session is re-read with its new counters.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+    "UPDATE Session s SET s.seatsTaken = " +
+    "(SELECT COUNT(p) FROM Participation p WHERE p.id.sessionId = s.id) " +
+    "WHERE s.id = :id AND (s.capacity IS NULL OR s.capacity >= " +
+    "(SELECT COUNT(p) FROM Participation p WHERE p.id.sessionId = s.id))"
+  )
+  int syncSeatsTaken(@Param("id") Long id);
+}
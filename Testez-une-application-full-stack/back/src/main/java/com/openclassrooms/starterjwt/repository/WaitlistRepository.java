@@ -0,0 +1,55 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Long> {
+  @Modifying
+  @Query(
+    value = "INSERT IGNORE INTO WAITLIST (session_id, user_id) " +
+    "VALUES (:sessionId, :userId)",
+    nativeQuery = true
+  )
+  int insertIfAbsent(
+    @Param("sessionId") Long sessionId,
+    @Param("userId") Long userId
+  );
+
+  List<WaitlistEntry> findBySessionIdOrderByIdAsc(
+    Long sessionId,
+    Pageable pageable
+  );
+
+  /** Returns 0 when a concurrent promotion already removed the entry. */
+  @Modifying
+  @Query("DELETE FROM WaitlistEntry w WHERE w.id = :id")
+  int deleteEntry(@Param("id") Long id);
+
+  @Modifying
+  @Query(
+    "DELETE FROM WaitlistEntry w " +
+    "WHERE w.sessionId = :sessionId AND w.userId = :userId"
+  )
+  int deleteBySessionIdAndUserId(
+    @Param("sessionId") Long sessionId,
+    @Param("userId") Long userId
+  );
+
+  @Modifying
+  @Query(
+    "DELETE FROM WaitlistEntry w " +
+    "WHERE w.sessionId = :sessionId AND w.userId IN :userIds"
+  )
+  int deleteBySessionIdAndUserIdIn(
+    @Param("sessionId") Long sessionId,
+    @Param("userIds") Collection<Long> userIds
+  );
+}
@@ -0,0 +1,11 @@
+package com.openclassrooms.starterjwt.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface CollectionVersion {
+  Long getTotal();
+
+  Long getVersionSum();
+
+  LocalDateTime getLastUpdatedAt();
+}
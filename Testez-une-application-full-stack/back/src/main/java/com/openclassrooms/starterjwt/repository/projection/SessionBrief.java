@@ -0,0 +1,13 @@
+package com.openclassrooms.starterjwt.repository.projection;
+
+import java.util.Date;
+
+public interface SessionBrief {
+  Long getId();
+
+  String getName();
+
+  Date getDate();
+
+  Long getTeacherId();
+}
@@ -0,0 +1,22 @@
+package com.openclassrooms.starterjwt.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+
+public interface SessionSummary {
+  Long getId();
+
+  String getName();
+
+  Date getDate();
+
+  String getDescription();
+
+  Long getTeacherId();
+
+  Long getParticipantCount();
+
+  LocalDateTime getCreatedAt();
+
+  LocalDateTime getUpdatedAt();
+}
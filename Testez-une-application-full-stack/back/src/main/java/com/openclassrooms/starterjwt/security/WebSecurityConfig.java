@@ -4,10 +4,15 @@ import com.openclassrooms.starterjwt.security.jwt.AuthEntryPointJwt;
 import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.config.annotation.authentication.configurers.provisioning.InMemoryUserDetailsManagerConfigurer;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -32,6 +37,9 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
   @Autowired
   private AuthEntryPointJwt unauthorizedHandler;
 
+  @Value("${oc.app.bcryptStrength:10}")
+  private int bcryptStrength;
+
   @Bean
   public AuthTokenFilter authenticationJwtTokenFilter() {
     return new AuthTokenFilter();
@@ -54,7 +62,7 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
 
   @Bean
   public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    return new BCryptPasswordEncoder(bcryptStrength);
   }
 
   @Override
@@ -73,6 +81,8 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
       .authorizeRequests()
       .antMatchers("/api/auth/**")
       .permitAll()
+      .antMatchers("/actuator/health")
+      .permitAll()
       .antMatchers("/api/**")
       .authenticated()
       .anyRequest()
@@ -83,4 +93,58 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
       UsernamePasswordAuthenticationFilter.class
     );
   }
+
+  /**
+   * Every actuator endpoint but health is reserved to the Prometheus scraper,
+   * which authenticates with HTTP Basic as oc.app.metrics.scrapeUsername.
+   * Without oc.app.metrics.scrapePassword no scrape account exists and these
+   * endpoints answer 401.
+   */
+  @Configuration
+  @Order(1)
+  public static class MetricsSecurityConfig
+    extends WebSecurityConfigurerAdapter {
+
+    static final String SCRAPE_ROLE = "METRICS";
+
+    @Value("${oc.app.metrics.scrapeUsername:prometheus}")
+    private String scrapeUsername;
+
+    @Value("${oc.app.metrics.scrapePassword:}")
+    private String scrapePassword;
+
+    @Override
+    protected void configure(
+      AuthenticationManagerBuilder authenticationManagerBuilder
+    ) throws Exception {
+      PasswordEncoder encoder = new BCryptPasswordEncoder();
+      InMemoryUserDetailsManagerConfigurer<AuthenticationManagerBuilder> users = authenticationManagerBuilder
+        .inMemoryAuthentication()
+        .passwordEncoder(encoder);
+      if (!scrapePassword.isEmpty()) {
+        users
+          .withUser(scrapeUsername)
+          .password(encoder.encode(scrapePassword))
+          .roles(SCRAPE_ROLE);
+      }
+    }
+
+    @Override
+    protected void configure(HttpSecurity http) throws Exception {
+      http
+        .requestMatcher(
+          EndpointRequest.toAnyEndpoint().excluding(HealthEndpoint.class)
+        )
+        .csrf()
+        .disable()
+        .sessionManagement()
+        .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+        .and()
+        .authorizeRequests()
+        .anyRequest()
+        .hasRole(SCRAPE_ROLE)
+        .and()
+        .httpBasic();
+    }
+  }
 }
@@ -1,6 +1,8 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
 import java.io.IOException;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -9,6 +11,7 @@ import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -24,6 +27,12 @@ public class AuthTokenFilter extends OncePerRequestFilter {
   @Autowired
   private UserDetailsServiceImpl userDetailsService;
 
+  @Autowired
+  private TokenRevocationService tokenRevocationService;
+
+  @Value("${oc.app.jwtStatelessPrincipal:true}")
+  private boolean statelessPrincipal;
+
   private static final Logger logger = LoggerFactory.getLogger(
     AuthTokenFilter.class
   );
@@ -36,22 +45,22 @@ public class AuthTokenFilter extends OncePerRequestFilter {
   ) throws ServletException, IOException {
     try {
       String jwt = parseJwt(request);
-      if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-        UserDetails userDetails = userDetailsService.loadUserByUsername(
-          username
-        );
-        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-          userDetails,
-          null,
-          userDetails.getAuthorities()
-        );
-        authentication.setDetails(
-          new WebAuthenticationDetailsSource().buildDetails(request)
-        );
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+      Claims claims = jwt != null ? jwtUtils.parseJwtClaims(jwt) : null;
+      if (claims != null) {
+        UserDetails userDetails = resolvePrincipal(claims);
+
+        if (userDetails != null) {
+          UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            userDetails,
+            null,
+            userDetails.getAuthorities()
+          );
+          authentication.setDetails(
+            new WebAuthenticationDetailsSource().buildDetails(request)
+          );
+
+          SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
       }
     } catch (Exception e) {
       logger.error("Cannot set user authentication: {}", e);
@@ -60,6 +69,25 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     filterChain.doFilter(request, response);
   }
 
+  private UserDetails resolvePrincipal(Claims claims) {
+    UserDetailsImpl principal = statelessPrincipal
+      ? jwtUtils.getUserDetailsFromClaims(claims)
+      : null;
+
+    if (principal == null) {
+      return userDetailsService.loadUserByUsername(claims.getSubject());
+    }
+
+    if (
+      tokenRevocationService.isRevoked(principal.getId(), claims.getIssuedAt())
+    ) {
+      logger.warn("Rejected revoked JWT for user {}", principal.getId());
+      return null;
+    }
+
+    return principal;
+  }
+
   private String parseJwt(HttpServletRequest request) {
     String headerAuth = request.getHeader("Authorization");
 
@@ -1,7 +1,15 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import io.jsonwebtoken.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Base64;
 import java.util.Date;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,49 +22,161 @@ public class JwtUtils {
 
   private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+  static final String CLAIM_ID = "id";
+  static final String CLAIM_FIRST_NAME = "firstName";
+  static final String CLAIM_LAST_NAME = "lastName";
+  static final String CLAIM_ADMIN = "admin";
+
+  static final int MAX_CACHED_TOKENS = 10_000;
+
+  static final String VALIDATION_METRIC = "jwt.validation";
+
   @Value("${oc.app.jwtSecret}")
   private String jwtSecret;
 
   @Value("${oc.app.jwtExpirationMs}")
   private int jwtExpirationMs;
 
+  private Clock clock = Clock.systemUTC();
+
+  private final MeterRegistry meterRegistry;
+
+  // Only tokens whose signature has been verified are cached, keyed by digest.
+  private final Cache<String, Claims> verifiedClaims = Caffeine
+    .newBuilder()
+    .maximumSize(MAX_CACHED_TOKENS)
+    .build();
+
+  public JwtUtils(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
   public String generateJwtToken(Authentication authentication) {
     UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
+    Date issuedAt = new Date();
 
     return Jwts
       .builder()
       .setSubject((userPrincipal.getUsername()))
-      .setIssuedAt(new Date())
-      .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
+      .claim(CLAIM_ID, userPrincipal.getId())
+      .claim(CLAIM_FIRST_NAME, userPrincipal.getFirstName())
+      .claim(CLAIM_LAST_NAME, userPrincipal.getLastName())
+      .claim(CLAIM_ADMIN, userPrincipal.getAdmin())
+      .setIssuedAt(issuedAt)
+      .setExpiration(new Date(issuedAt.getTime() + jwtExpirationMs))
       .signWith(SignatureAlgorithm.HS512, jwtSecret)
       .compact();
   }
 
   public String getUserNameFromJwtToken(String token) {
-    return Jwts
-      .parser()
-      .setSigningKey(jwtSecret)
-      .parseClaimsJws(token)
-      .getBody()
-      .getSubject();
+    String digest = digest(token);
+    Claims claims = cachedClaims(digest);
+    if (claims == null) {
+      claims = verify(token, digest);
+    }
+    return claims.getSubject();
   }
 
   public boolean validateJwtToken(String authToken) {
+    return parseJwtClaims(authToken) != null;
+  }
+
+  public Claims parseJwtClaims(String authToken) {
     try {
-      Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-      return true;
+      String digest = digest(authToken);
+      Claims claims = cachedClaims(digest);
+      if (claims == null) {
+        claims = verify(authToken, digest);
+      }
+      recordOutcome("valid");
+      return claims;
     } catch (SignatureException e) {
       logger.error("Invalid JWT signature: {}", e.getMessage());
+      recordOutcome("bad_signature");
     } catch (MalformedJwtException e) {
       logger.error("Invalid JWT token: {}", e.getMessage());
+      recordOutcome("malformed");
     } catch (ExpiredJwtException e) {
       logger.error("JWT token is expired: {}", e.getMessage());
+      recordOutcome("expired");
     } catch (UnsupportedJwtException e) {
       logger.error("JWT token is unsupported: {}", e.getMessage());
+      recordOutcome("unsupported");
     } catch (IllegalArgumentException e) {
       logger.error("JWT claims string is empty: {}", e.getMessage());
+      recordOutcome("empty");
     }
 
-    return false;
+    return null;
+  }
+
+  private void recordOutcome(String outcome) {
+    meterRegistry.counter(VALIDATION_METRIC, "outcome", outcome).increment();
+  }
+
+  private Claims verify(String token, String digest) {
+    Claims claims = Jwts
+      .parser()
+      .setSigningKey(jwtSecret)
+      .parseClaimsJws(token)
+      .getBody();
+    if (digest != null) {
+      verifiedClaims.put(digest, claims);
+    }
+    return claims;
+  }
+
+  private Claims cachedClaims(String digest) {
+    if (digest == null) {
+      return null;
+    }
+
+    Claims claims = verifiedClaims.getIfPresent(digest);
+    if (claims == null) {
+      return null;
+    }
+
+    Date expiration = claims.getExpiration();
+    if (expiration != null && !expiration.after(Date.from(clock.instant()))) {
+      verifiedClaims.invalidate(digest);
+      throw new ExpiredJwtException(
+        null,
+        claims,
+        "JWT expired at " + expiration.toInstant()
+      );
+    }
+    return claims;
+  }
+
+  private static String digest(String token) {
+    if (token == null || token.isEmpty()) {
+      return null;
+    }
+
+    try {
+      byte[] hash = MessageDigest
+        .getInstance("SHA-256")
+        .digest(token.getBytes(StandardCharsets.UTF_8));
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+    Object id = claims.get(CLAIM_ID);
+    if (!(id instanceof Number)) {
+      // Issued before principal claims were added to the token.
+      return null;
+    }
+
+    return UserDetailsImpl
+      .builder()
+      .id(((Number) id).longValue())
+      .username(claims.getSubject())
+      .firstName(claims.get(CLAIM_FIRST_NAME, String.class))
+      .lastName(claims.get(CLAIM_LAST_NAME, String.class))
+      .admin(claims.get(CLAIM_ADMIN, Boolean.class))
+      .build();
   }
 }
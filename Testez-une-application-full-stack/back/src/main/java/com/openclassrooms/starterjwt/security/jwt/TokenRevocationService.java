@@ -0,0 +1,84 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory revocation check for tokens whose principal is built from claims.
+ * Revocations made on this node apply immediately; a user removed through
+ * another node is detected by the periodic existence check, so a deleted
+ * account is cut off after at most {@code oc.app.jwtRevalidationMs}.
+ */
+@Component
+public class TokenRevocationService {
+
+  private final UserRepository userRepository;
+
+  private final ConcurrentMap<Long, Long> revokedAtByUserId = new ConcurrentHashMap<>();
+
+  /** Users found in the database, until the next existence check is due. */
+  private final Cache<Long, Boolean> verifiedUserIds;
+
+  private final long jwtExpirationMs;
+
+  public TokenRevocationService(
+    UserRepository userRepository,
+    @Value("${oc.app.jwtExpirationMs}") long jwtExpirationMs,
+    @Value("${oc.app.jwtRevalidationMs:60000}") long revalidationMs,
+    @Value("${oc.app.jwtRevalidationCache.maxSize:10000}") long maxSize
+  ) {
+    this.userRepository = userRepository;
+    this.jwtExpirationMs = jwtExpirationMs;
+    this.verifiedUserIds =
+      Caffeine
+        .newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(revalidationMs, TimeUnit.MILLISECONDS)
+        // No listener to run: evicting on the calling thread is cheap and
+        // keeps the size exact when read.
+        .executor(Runnable::run)
+        .build();
+  }
+
+  public void revokeUser(Long userId) {
+    long now = System.currentTimeMillis();
+    this.verifiedUserIds.invalidate(userId);
+    this.revokedAtByUserId.put(userId, now);
+    this.revokedAtByUserId.values()
+      .removeIf(revokedAt -> revokedAt < now - this.jwtExpirationMs);
+  }
+
+  public boolean isRevoked(Long userId, Date issuedAt) {
+    Long revokedAt = this.revokedAtByUserId.get(userId);
+    if (
+      revokedAt != null && (issuedAt == null || issuedAt.getTime() <= revokedAt)
+    ) {
+      return true;
+    }
+
+    if (this.verifiedUserIds.getIfPresent(userId) != null) {
+      return false;
+    }
+
+    if (!this.userRepository.existsById(userId)) {
+      revokeUser(userId);
+      return true;
+    }
+
+    this.verifiedUserIds.put(userId, Boolean.TRUE);
+    return false;
+  }
+
+  /** Number of users currently exempt from the existence check. */
+  public long verifiedUserCount() {
+    this.verifiedUserIds.cleanUp();
+    return this.verifiedUserIds.estimatedSize();
+  }
+}
@@ -0,0 +1,87 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import com.openclassrooms.starterjwt.exception.ServiceUnavailableException;
+import com.openclassrooms.starterjwt.metrics.QueryCounter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded pool for the CPU-bound password checks of login, register and the
+ * CSV user import, so that a burst of logins cannot take every request thread. A task that finds
+ * the queue full is rejected at once with a 503 instead of waiting.
+ */
+@Component
+public class PasswordHashingPool implements MeterBinder {
+
+  static final String POOL_NAME = "passwordHashing";
+
+  private final ThreadPoolExecutor executor;
+
+  private final AtomicLong rejected = new AtomicLong();
+
+  public PasswordHashingPool(
+    @Value("${oc.app.passwordHashing.threads:0}") int threads,
+    @Value("${oc.app.passwordHashing.queueCapacity:200}") int queueCapacity
+  ) {
+    int size = threads > 0
+      ? threads
+      : Runtime.getRuntime().availableProcessors();
+    this.executor =
+      new ThreadPoolExecutor(
+        size,
+        size,
+        0L,
+        TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        new CustomizableThreadFactory("password-hash-"),
+        new ThreadPoolExecutor.AbortPolicy()
+      );
+  }
+
+  public <T> CompletableFuture<T> submit(Supplier<T> task) {
+    try {
+      // The whole task is bound, including the completion that triggers the
+      // next stages, so they are submitted with the request counter too.
+      return CompletableFuture.supplyAsync(
+        task,
+        runnable -> this.executor.execute(QueryCounter.propagate(runnable))
+      );
+    } catch (RejectedExecutionException e) {
+      this.rejected.incrementAndGet();
+      throw new ServiceUnavailableException();
+    }
+  }
+
+  public int getThreads() {
+    return this.executor.getCorePoolSize();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    this.executor.shutdown();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    new ExecutorServiceMetrics(this.executor, POOL_NAME, Tags.empty())
+      .bindTo(registry);
+    FunctionCounter
+      .builder("password.hashing.rejected", this.rejected, AtomicLong::get)
+      .description("Password hashing tasks rejected because the queue was full")
+      .register(registry);
+  }
+}
@@ -0,0 +1,57 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class UserDetailsCache implements MeterBinder {
+
+  static final String CACHE_NAME = "userDetails";
+
+  private final Cache<String, UserDetailsImpl> cache;
+
+  public UserDetailsCache(
+    @Value("${oc.app.userDetailsCache.maxSize:10000}") long maxSize,
+    @Value("${oc.app.userDetailsCache.ttlSeconds:300}") long ttlSeconds
+  ) {
+    this.cache =
+      Caffeine
+        .newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+        .recordStats()
+        .build();
+  }
+
+  public UserDetailsImpl get(
+    String email,
+    Function<String, UserDetailsImpl> loader
+  ) {
+    return this.cache.get(email, loader);
+  }
+
+  public void invalidate(String email) {
+    this.cache.invalidate(email);
+  }
+
+  public CacheStats stats() {
+    return this.cache.stats();
+  }
+
+  public void cleanUp() {
+    this.cache.cleanUp();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, this.cache, CACHE_NAME);
+  }
+}
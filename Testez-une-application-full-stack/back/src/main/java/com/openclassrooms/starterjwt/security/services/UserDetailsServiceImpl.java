@@ -2,25 +2,52 @@ package com.openclassrooms.starterjwt.security.services;
 
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
 
+  static final String LOAD_METRIC = "security.user.details.load";
+
+  private final Timer loadTimer;
+
   UserRepository userRepository;
 
-  UserDetailsServiceImpl(UserRepository userRepository) {
+  UserDetailsCache userDetailsCache;
+
+  public UserDetailsServiceImpl(
+    UserRepository userRepository,
+    UserDetailsCache userDetailsCache,
+    MeterRegistry meterRegistry
+  ) {
     this.userRepository = userRepository;
+    this.userDetailsCache = userDetailsCache;
+    this.loadTimer =
+      Timer
+        .builder(LOAD_METRIC)
+        .description("Time to resolve a user at login, cache hits included")
+        .publishPercentileHistogram()
+        .register(meterRegistry);
   }
 
+  /**
+   * Cache hits open no transaction; a miss reads through
+   * {@link UserRepository#findByEmail}, which runs read-only.
+   */
   @Override
-  @Transactional
   public UserDetails loadUserByUsername(String username)
     throws UsernameNotFoundException {
+    return loadTimer.record(() ->
+      userDetailsCache.get(username, this::loadFromRepository)
+    );
+  }
+
+  private UserDetailsImpl loadFromRepository(String username) {
     User user = userRepository
       .findByEmail(username)
       .orElseThrow(() ->
@@ -33,6 +60,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
       .username(user.getEmail())
       .lastName(user.getLastName())
       .firstName(user.getFirstName())
+      .admin(user.isAdmin())
       .password(user.getPassword())
       .build();
   }
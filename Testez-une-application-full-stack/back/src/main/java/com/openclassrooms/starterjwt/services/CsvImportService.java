@@ -0,0 +1,508 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ServiceUnavailableException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.SignupRequest;
+import com.openclassrooms.starterjwt.payload.response.ImportReport;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.PasswordHashingPool;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCache;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+/**
+ * Imports users and sessions from CSV streams. Rows are read one at a time and
+ * written per chunk: one IN query checks the chunk against the database,
+ * passwords are hashed on the PasswordHashingPool and saveAll sends the rows
+ * as JDBC batches (see PooledIds).
+ */
+@Service
+public class CsvImportService {
+
+  static final int CHUNK_SIZE = 500;
+
+  private static final List<String> USER_COLUMNS = Arrays.asList(
+    "email",
+    "first_name",
+    "last_name",
+    "password"
+  );
+
+  private static final List<String> SESSION_COLUMNS = Arrays.asList(
+    "name",
+    "date",
+    "description",
+    "teacher_id",
+    "capacity"
+  );
+
+  private static final Logger logger = LoggerFactory.getLogger(
+    CsvImportService.class
+  );
+
+  private final UserRepository userRepository;
+
+  private final SessionRepository sessionRepository;
+
+  private final TeacherRepository teacherRepository;
+
+  private final PasswordEncoder passwordEncoder;
+
+  private final Validator validator;
+
+  private final UserDetailsCache userDetailsCache;
+
+  private final PasswordHashingPool passwordHashingPool;
+
+  public CsvImportService(
+    UserRepository userRepository,
+    SessionRepository sessionRepository,
+    TeacherRepository teacherRepository,
+    PasswordEncoder passwordEncoder,
+    Validator validator,
+    UserDetailsCache userDetailsCache,
+    PasswordHashingPool passwordHashingPool
+  ) {
+    this.userRepository = userRepository;
+    this.sessionRepository = sessionRepository;
+    this.teacherRepository = teacherRepository;
+    this.passwordEncoder = passwordEncoder;
+    this.validator = validator;
+    this.userDetailsCache = userDetailsCache;
+    this.passwordHashingPool = passwordHashingPool;
+  }
+
+  /** Columns: email, first_name, last_name, password. */
+  public ImportReport importUsers(InputStream csv) throws IOException {
+    ImportReport report = new ImportReport();
+    Set<String> seenEmails = new HashSet<>();
+    List<CsvRow<SignupRequest>> chunk = new ArrayList<>(CHUNK_SIZE);
+
+    readRows(
+      csv,
+      USER_COLUMNS,
+      report,
+      (line, values) -> {
+        SignupRequest request = new SignupRequest();
+        request.setEmail(values.get("email"));
+        request.setFirstName(values.get("first_name"));
+        request.setLastName(values.get("last_name"));
+        request.setPassword(values.get("password"));
+
+        Set<ConstraintViolation<SignupRequest>> violations =
+          this.validator.validate(request);
+        if (!violations.isEmpty()) {
+          report.error(line, describe(violations));
+          return;
+        }
+        if (!seenEmails.add(request.getEmail().toLowerCase(Locale.ROOT))) {
+          report.error(line, "Duplicate email in file");
+          return;
+        }
+
+        chunk.add(new CsvRow<>(line, request));
+        if (chunk.size() == CHUNK_SIZE) {
+          this.insertUsers(chunk, report);
+          chunk.clear();
+        }
+      }
+    );
+    this.insertUsers(chunk, report);
+
+    return report;
+  }
+
+  /** Columns: name, date (ISO-8601), description, teacher_id, capacity. */
+  public ImportReport importSessions(InputStream csv) throws IOException {
+    ImportReport report = new ImportReport();
+    List<CsvRow<Session>> chunk = new ArrayList<>(CHUNK_SIZE);
+
+    readRows(
+      csv,
+      SESSION_COLUMNS,
+      report,
+      (line, values) -> {
+        Session session;
+        try {
+          session = parseSession(values);
+        } catch (IllegalArgumentException e) {
+          report.error(line, e.getMessage());
+          return;
+        }
+
+        chunk.add(new CsvRow<>(line, session));
+        if (chunk.size() == CHUNK_SIZE) {
+          this.insertSessions(chunk, report);
+          chunk.clear();
+        }
+      }
+    );
+    this.insertSessions(chunk, report);
+
+    return report;
+  }
+
+  private void insertUsers(
+    List<CsvRow<SignupRequest>> chunk,
+    ImportReport report
+  ) {
+    if (chunk.isEmpty()) {
+      return;
+    }
+
+    Set<String> existing =
+      this.userRepository.findExistingEmails(
+          chunk
+            .stream()
+            .map(row -> row.value.getEmail())
+            .collect(Collectors.toList())
+        )
+        .stream()
+        .map(email -> email.toLowerCase(Locale.ROOT))
+        .collect(Collectors.toSet());
+
+    List<CsvRow<SignupRequest>> fresh = new ArrayList<>(chunk.size());
+    List<CompletableFuture<String>> hashes = new ArrayList<>(chunk.size());
+    for (CsvRow<SignupRequest> row : chunk) {
+      if (existing.contains(row.value.getEmail().toLowerCase(Locale.ROOT))) {
+        report.error(row.line, "Email is already registered");
+        continue;
+      }
+      String password = row.value.getPassword();
+      fresh.add(row);
+      hashes.add(this.hash(password, hashes));
+    }
+
+    List<User> users = new ArrayList<>(fresh.size());
+    for (int i = 0; i < fresh.size(); i++) {
+      SignupRequest request = fresh.get(i).value;
+      users.add(
+        new User(
+          request.getEmail(),
+          request.getLastName(),
+          request.getFirstName(),
+          await(hashes.get(i)),
+          false
+        )
+      );
+    }
+
+    int inserted = 0;
+    try {
+      this.userRepository.saveAll(users);
+      inserted = users.size();
+    } catch (DataIntegrityViolationException e) {
+      // An email was registered since the lookup above: the whole batch was
+      // rolled back, so insert the rows one by one to find it.
+      for (int i = 0; i < users.size(); i++) {
+        try {
+          this.userRepository.save(users.get(i).setId(null));
+          inserted++;
+        } catch (DataIntegrityViolationException duplicate) {
+          report.error(fresh.get(i).line, "Email is already registered");
+          users.set(i, null);
+        }
+      }
+    }
+    for (User user : users) {
+      if (user != null) {
+        this.userDetailsCache.invalidate(user.getEmail());
+      }
+    }
+    report.imported(inserted);
+
+    logger.info(
+      "User import: {} rows read, {} imported, {} errors",
+      report.getRows(),
+      report.getImported(),
+      report.getErrorCount()
+    );
+  }
+
+  private void insertSessions(
+    List<CsvRow<Session>> chunk,
+    ImportReport report
+  ) {
+    if (chunk.isEmpty()) {
+      return;
+    }
+
+    Map<Long, Teacher> teachers =
+      this.teacherRepository.findAllById(
+          chunk
+            .stream()
+            .map(row -> row.value.getTeacher().getId())
+            .collect(Collectors.toSet())
+        )
+        .stream()
+        .collect(Collectors.toMap(Teacher::getId, Function.identity()));
+
+    List<Session> sessions = new ArrayList<>(chunk.size());
+    for (CsvRow<Session> row : chunk) {
+      Long teacherId = row.value.getTeacher().getId();
+      if (!teachers.containsKey(teacherId)) {
+        report.error(row.line, "Unknown teacher " + teacherId);
+        continue;
+      }
+      sessions.add(row.value.setTeacher(teachers.get(teacherId)));
+    }
+
+    if (!sessions.isEmpty()) {
+      this.sessionRepository.saveAll(sessions);
+      report.imported(sessions.size());
+    }
+
+    logger.info(
+      "Session import: {} rows read, {} imported, {} errors",
+      report.getRows(),
+      report.getImported(),
+      report.getErrorCount()
+    );
+  }
+
+  /**
+   * Keeps at most one import hash per pool thread in flight, so the queue
+   * stays free for logins. When logins fill it anyway, waits for one of the
+   * hashes already submitted and retries; with none in flight, the import
+   * fails with the same 503 as a login would.
+   */
+  private CompletableFuture<String> hash(
+    String password,
+    List<CompletableFuture<String>> submitted
+  ) {
+    int oldest = submitted.size() - this.passwordHashingPool.getThreads();
+    if (oldest >= 0) {
+      await(submitted.get(oldest));
+    }
+    while (true) {
+      // Picked before submitting: a hash can complete before its thread takes
+      // the next task, so after a rejection it may already look done.
+      CompletableFuture<String> pending = submitted
+        .subList(Math.max(oldest, 0), submitted.size())
+        .stream()
+        .filter(future -> !future.isDone())
+        .findFirst()
+        .orElse(null);
+      try {
+        return this.passwordHashingPool.submit(() ->
+            this.passwordEncoder.encode(password)
+          );
+      } catch (ServiceUnavailableException e) {
+        if (pending == null) {
+          throw e;
+        }
+        await(pending);
+      }
+    }
+  }
+
+  /** The teacher of the returned session only carries the parsed id. */
+  private static Session parseSession(Map<String, String> values) {
+    String name = values.get("name");
+    if (name.trim().isEmpty() || name.length() > 50) {
+      throw new IllegalArgumentException(
+        "name: must be between 1 and 50 characters"
+      );
+    }
+    String description = values.get("description");
+    if (description.trim().isEmpty() || description.length() > 2500) {
+      throw new IllegalArgumentException(
+        "description: must be between 1 and 2500 characters"
+      );
+    }
+
+    Long teacherId;
+    try {
+      teacherId = Long.valueOf(values.get("teacher_id").trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("teacher_id: must be a number");
+    }
+
+    Integer capacity = null;
+    String rawCapacity = values.get("capacity").trim();
+    if (!rawCapacity.isEmpty()) {
+      try {
+        capacity = Integer.valueOf(rawCapacity);
+      } catch (NumberFormatException e) {
+        capacity = 0;
+      }
+      if (capacity < 1) {
+        throw new IllegalArgumentException(
+          "capacity: must be a positive number"
+        );
+      }
+    }
+
+    return Session
+      .builder()
+      .name(name)
+      .date(Timestamp.valueOf(parseDate(values.get("date").trim())))
+      .description(description)
+      .teacher(new Teacher().setId(teacherId))
+      .capacity(capacity)
+      .seatsTaken(0)
+      .build();
+  }
+
+  private static LocalDateTime parseDate(String value) {
+    try {
+      return value.length() == 10
+        ? LocalDate.parse(value).atStartOfDay()
+        : LocalDateTime.parse(value);
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException(
+        "date: expected yyyy-MM-dd or yyyy-MM-ddTHH:mm[:ss]"
+      );
+    }
+  }
+
+  private static <T> String describe(Set<ConstraintViolation<T>> violations) {
+    return violations
+      .stream()
+      .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+      .sorted()
+      .collect(Collectors.joining("; "));
+  }
+
+  private static <T> T await(Future<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Import interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private static void readRows(
+    InputStream csv,
+    List<String> columns,
+    ImportReport report,
+    RowHandler handler
+  ) throws IOException {
+    BufferedReader reader = new BufferedReader(
+      new InputStreamReader(csv, StandardCharsets.UTF_8)
+    );
+    String header = reader.readLine();
+    if (header == null) {
+      throw new BadRequestException();
+    }
+
+    List<String> names = parseLine(header.replace("\uFEFF", ""))
+      .stream()
+      .map(name -> name.trim().toLowerCase(Locale.ROOT))
+      .collect(Collectors.toList());
+    if (!names.containsAll(columns)) {
+      throw new BadRequestException();
+    }
+
+    String text;
+    long line = 1;
+    while ((text = reader.readLine()) != null) {
+      line++;
+      if (text.trim().isEmpty()) {
+        continue;
+      }
+      report.rowRead();
+
+      List<String> fields;
+      try {
+        fields = parseLine(text);
+      } catch (IllegalArgumentException e) {
+        report.error(line, e.getMessage());
+        continue;
+      }
+
+      Map<String, String> values = new HashMap<>();
+      for (String column : columns) {
+        int index = names.indexOf(column);
+        values.put(column, index < fields.size() ? fields.get(index) : "");
+      }
+      handler.handle(line, values);
+    }
+  }
+
+  /** Splits one RFC 4180 line; quoted fields may contain commas and "". */
+  static List<String> parseLine(String line) {
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c != '"') {
+          field.append(c);
+        } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        } else {
+          quoted = false;
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    if (quoted) {
+      throw new IllegalArgumentException("Unterminated quoted field");
+    }
+    fields.add(field.toString());
+
+    return fields;
+  }
+
+  @FunctionalInterface
+  private interface RowHandler {
+    void handle(long line, Map<String, String> values);
+  }
+
+  private static class CsvRow<T> {
+
+    private final long line;
+
+    private final T value;
+
+    CsvRow(long line, T value) {
+      this.line = line;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package com.openclassrooms.starterjwt.services;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/** Strong entity tags built from a key and a version or modification time. */
+public final class ETags {
+
+  private ETags() {}
+
+  public static String of(Object key, long version) {
+    return "\"" + key + "-" + version + "\"";
+  }
+
+  public static String of(Object key, LocalDateTime updatedAt) {
+    long millis = updatedAt != null
+      ? Timestamp.valueOf(updatedAt).getTime()
+      : 0L;
+
+    return of(key, millis);
+  }
+}
@@ -0,0 +1,183 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+/**
+ * Streams every session with its attendees from a forward-only result set
+ * straight to the output, so memory stays flat whatever the number of
+ * participations. Rows come ordered by session, which lets the NDJSON writer
+ * close a session's object as soon as the next one starts.
+ */
+@Service
+public class SessionExportService {
+
+  /**
+   * Makes MySQL Connector/J stream this result set row by row, without
+   * changing how the other statements of the application are fetched.
+   */
+  static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+  static final String EXPORT_SQL =
+    "SELECT s.id, s.name, s.date, s.teacher_id, p.user_id " +
+    "FROM SESSIONS s LEFT JOIN PARTICIPATE p ON p.session_id = s.id " +
+    "ORDER BY s.id, p.user_id";
+
+  static final String CSV_HEADER =
+    "session_id,session_name,session_date,teacher_id,user_id";
+
+  private static final JsonFactory jsonFactory = new JsonFactory();
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public SessionExportService(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /** One JSON object per line: id, name, date, teacher_id and users. */
+  public void writeNdjson(OutputStream out) throws IOException {
+    JsonGenerator json = jsonFactory.createGenerator(out);
+    json.setRootValueSeparator(null);
+    long[] currentId = { -1L };
+
+    stream(rs -> {
+      long sessionId = rs.getLong(1);
+      if (sessionId != currentId[0]) {
+        if (currentId[0] != -1L) {
+          endSession(json);
+        }
+        currentId[0] = sessionId;
+        json.writeStartObject();
+        json.writeNumberField("id", sessionId);
+        json.writeStringField("name", rs.getString(2));
+        json.writeStringField("date", formatDate(rs.getTimestamp(3)));
+        long teacherId = rs.getLong(4);
+        if (rs.wasNull()) {
+          json.writeNullField("teacher_id");
+        } else {
+          json.writeNumberField("teacher_id", teacherId);
+        }
+        json.writeArrayFieldStart("users");
+      }
+
+      long userId = rs.getLong(5);
+      if (!rs.wasNull()) {
+        json.writeNumber(userId);
+      }
+    });
+
+    if (currentId[0] != -1L) {
+      endSession(json);
+    }
+    json.flush();
+  }
+
+  /** One line per participation; sessions without attendees get one line. */
+  public void writeCsv(OutputStream out) throws IOException {
+    Writer csv = new BufferedWriter(
+      new OutputStreamWriter(out, StandardCharsets.UTF_8)
+    );
+    csv.write(CSV_HEADER);
+    csv.write('\n');
+
+    stream(rs -> {
+      csv.write(Long.toString(rs.getLong(1)));
+      csv.write(',');
+      csv.write(escapeCsv(rs.getString(2)));
+      csv.write(',');
+      csv.write(formatDate(rs.getTimestamp(3)));
+      csv.write(',');
+      csv.write(nullableLong(rs, 4));
+      csv.write(',');
+      csv.write(nullableLong(rs, 5));
+      csv.write('\n');
+    });
+
+    csv.flush();
+  }
+
+  private void stream(ExportRowWriter writer) throws IOException {
+    RowCallbackHandler handler = rs -> {
+      try {
+        writer.write(rs);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    };
+
+    try {
+      this.jdbcTemplate.query(
+          connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+              EXPORT_SQL,
+              ResultSet.TYPE_FORWARD_ONLY,
+              ResultSet.CONCUR_READ_ONLY
+            );
+            statement.setFetchSize(STREAMING_FETCH_SIZE);
+            return statement;
+          },
+          handler
+        );
+    } catch (UncheckedIOException e) {
+      // Usually the client went away; JdbcTemplate closes the result set.
+      throw e.getCause();
+    }
+  }
+
+  private static void endSession(JsonGenerator json) throws IOException {
+    json.writeEndArray();
+    json.writeEndObject();
+    json.writeRaw('\n');
+  }
+
+  private static String formatDate(Timestamp date) {
+    return date != null ? date.toInstant().toString() : "";
+  }
+
+  private static String nullableLong(ResultSet rs, int column)
+    throws SQLException {
+    long value = rs.getLong(column);
+    return rs.wasNull() ? "" : Long.toString(value);
+  }
+
+  /**
+   * Quotes the value when needed. A leading = + - @ tab or carriage return
+   * would make spreadsheets evaluate it as a formula, so it gets a ' prefix.
+   */
+  static String escapeCsv(String value) {
+    if (value == null || value.isEmpty()) {
+      return "";
+    }
+    if ("=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+      value = "'" + value;
+    }
+    if (
+      value.indexOf(',') < 0 &&
+      value.indexOf('"') < 0 &&
+      value.indexOf('\n') < 0 &&
+      value.indexOf('\r') < 0
+    ) {
+      return value;
+    }
+    return "\"" + value.replace("\"", "\"\"") + "\"";
+  }
+
+  @FunctionalInterface
+  private interface ExportRowWriter {
+    void write(ResultSet rs) throws SQLException, IOException;
+  }
+}
@@ -1,34 +1,138 @@
 package com.openclassrooms.starterjwt.services;
 
 import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.models.ParticipationId;
+import com.openclassrooms.starterjwt.models.ParticipationOutcome;
+import com.openclassrooms.starterjwt.models.ParticipationStatus;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.pagination.KeysetCursor;
+import com.openclassrooms.starterjwt.pagination.KeysetPage;
+import com.openclassrooms.starterjwt.payload.request.RecurrenceRequest;
+import com.openclassrooms.starterjwt.repository.ParticipationRepository;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import com.openclassrooms.starterjwt.repository.projection.CollectionVersion;
+import com.openclassrooms.starterjwt.repository.projection.SeatAvailability;
+import com.openclassrooms.starterjwt.repository.projection.SessionBrief;
+import com.openclassrooms.starterjwt.repository.projection.SessionSummary;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class SessionService {
 
+  private static final int MAX_UPDATE_ATTEMPTS = 3;
+
+  /** Waitlist entries tried per promotion, enough to skip concurrent ones. */
+  private static final int PROMOTION_CANDIDATES = 20;
+
+  private static final int MAX_BULK_USERS = 1000;
+
+  /** Two years of weekly classes. */
+  private static final int MAX_OCCURRENCES = 104;
+
   private final SessionRepository sessionRepository;
 
   private final UserRepository userRepository;
 
+  private final ParticipationRepository participationRepository;
+
+  private final WaitlistRepository waitlistRepository;
+
+  private final TransactionTemplate transactionTemplate;
+
   public SessionService(
     SessionRepository sessionRepository,
-    UserRepository userRepository
+    UserRepository userRepository,
+    ParticipationRepository participationRepository,
+    WaitlistRepository waitlistRepository,
+    PlatformTransactionManager transactionManager
   ) {
     this.sessionRepository = sessionRepository;
     this.userRepository = userRepository;
+    this.participationRepository = participationRepository;
+    this.waitlistRepository = waitlistRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
   }
 
+  /** Rejects, like update, participants that do not fit in the capacity. */
   public Session create(Session session) {
+    int participants = session.getUsers() != null
+      ? session.getUsers().size()
+      : 0;
+    if (session.getCapacity() != null && participants > session.getCapacity()) {
+      throw new BadRequestException();
+    }
+
+    session.setSeatsTaken(participants);
     return this.sessionRepository.save(session);
   }
 
+  /**
+   * Creates the next occurrences of a session in one transaction. They copy
+   * its name, description, teacher and capacity, keep its wall-clock time and
+   * are saved with saveAll, so sessions and copied participations go out as
+   * JDBC batches. The waitlist is not copied.
+   */
+  @Transactional
+  public List<Session> createSeries(Long id, RecurrenceRequest recurrence) {
+    Session template =
+      this.sessionRepository.findById(id).orElseThrow(NotFoundException::new);
+    List<Date> dates = occurrenceDates(template.getDate(), recurrence);
+
+    List<User> participants = new ArrayList<>();
+    if (recurrence.isCopyParticipants()) {
+      List<Long> userIds =
+        this.participationRepository.findUserIdsBySessionId(id);
+      Integer capacity = template.getCapacity();
+      if (capacity != null && userIds.size() > capacity) {
+        userIds = userIds.subList(0, capacity);
+      }
+      for (Long userId : userIds) {
+        participants.add(this.userRepository.getById(userId));
+      }
+    }
+
+    List<Session> series = new ArrayList<>(dates.size());
+    for (Date date : dates) {
+      series.add(
+        Session
+          .builder()
+          .name(template.getName())
+          .description(template.getDescription())
+          .teacher(template.getTeacher())
+          .capacity(template.getCapacity())
+          .date(date)
+          .users(new ArrayList<>(participants))
+          .seatsTaken(participants.size())
+          .build()
+      );
+    }
+    return this.sessionRepository.saveAll(series);
+  }
+
   public void delete(Long id) {
     this.sessionRepository.deleteById(id);
   }
@@ -37,57 +141,383 @@ public class SessionService {
     return this.sessionRepository.findAll();
   }
 
+  public KeysetPage<SessionSummary> findPage(String cursor, Integer size) {
+    KeysetCursor after = KeysetCursor.decode(cursor);
+    int limit = KeysetPage.limit(size);
+    Pageable pageable = PageRequest.of(0, limit + 1);
+
+    List<SessionSummary> rows = after == null
+      ? this.sessionRepository.findFirstPage(pageable)
+      : this.sessionRepository.findPageAfter(
+          after.getDate(),
+          after.getId(),
+          pageable
+        );
+
+    return KeysetPage.of(
+      rows,
+      limit,
+      summary -> KeysetCursor.of(summary.getDate(), summary.getId())
+    );
+  }
+
+  public KeysetPage<SessionSummary> findRange(
+    Date from,
+    Date to,
+    Long teacherId,
+    String cursor,
+    Integer size
+  ) {
+    if (from == null || to == null || !from.before(to)) {
+      throw new BadRequestException();
+    }
+
+    KeysetCursor after = KeysetCursor.decode(cursor);
+    if (after == null) {
+      // Ids start at 1, so (from, 0) makes the first page start at from.
+      after = KeysetCursor.of(from, 0L);
+    }
+    int limit = KeysetPage.limit(size);
+
+    List<SessionSummary> rows =
+      this.sessionRepository.findRangePage(
+          from,
+          to,
+          teacherId,
+          after.getDate(),
+          after.getId(),
+          PageRequest.of(0, limit + 1)
+        );
+
+    return KeysetPage.of(
+      rows,
+      limit,
+      summary -> KeysetCursor.of(summary.getDate(), summary.getId())
+    );
+  }
+
+  public KeysetPage<SessionBrief> findPageForUser(
+    Long userId,
+    String cursor,
+    Integer size
+  ) {
+    KeysetCursor after = KeysetCursor.decode(cursor);
+    int limit = KeysetPage.limit(size);
+    Pageable pageable = PageRequest.of(0, limit + 1);
+
+    List<SessionBrief> rows = after == null
+      ? this.participationRepository.findFirstPageByUserId(userId, pageable)
+      : this.participationRepository.findPageByUserIdAfter(
+          userId,
+          after.getDate(),
+          after.getId(),
+          pageable
+        );
+
+    return KeysetPage.of(
+      rows,
+      limit,
+      brief -> KeysetCursor.of(brief.getDate(), brief.getId())
+    );
+  }
+
+  public String getEtag(Long id) {
+    return this.sessionRepository.findVersionById(id)
+      .map(version -> ETags.of(id, version))
+      .orElse(null);
+  }
+
+  public String getCollectionEtag() {
+    CollectionVersion version = this.sessionRepository.findCollectionVersion();
+
+    return ETags.of(
+      version.getTotal() + "." + version.getVersionSum(),
+      version.getLastUpdatedAt()
+    );
+  }
+
+  public List<Long> findParticipantIds(Long id) {
+    return this.participationRepository.findUserIdsBySessionId(id);
+  }
+
+  public Map<Long, List<Long>> findParticipantIds(List<Session> sessions) {
+    if (sessions.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    List<Long> sessionIds = sessions
+      .stream()
+      .map(Session::getId)
+      .collect(Collectors.toList());
+
+    return this.participationRepository.findIdPairsBySessionIdIn(sessionIds)
+      .stream()
+      .collect(
+        Collectors.groupingBy(
+          row -> (Long) row[0],
+          Collectors.mapping(row -> (Long) row[1], Collectors.toList())
+        )
+      );
+  }
+
   public Session getById(Long id) {
     return this.sessionRepository.findById(id).orElse(null);
   }
 
+  /**
+   * A client that sends the version it read gets a 409 when the session has
+   * changed since, participants joining or leaving included: the request
+   * replaces the participant list, so a stale list would drop them. Without a
+   * version the latest one is used, and a concurrent write is retried a
+   * bounded number of times before giving up. A participant list longer than
+   * the capacity is rejected. Returns the session as stored, with its new
+   * version and seat count.
+   */
   public Session update(Long id, Session session) {
     session.setId(id);
-    return this.sessionRepository.save(session);
+    boolean versionFromClient = session.getVersion() != null;
+
+    for (int attempt = 1;; attempt++) {
+      try {
+        return this.transactionTemplate.execute(status -> {
+            if (!versionFromClient) {
+              session.setVersion(
+                this.sessionRepository.findVersionById(id)
+                  .orElseThrow(NotFoundException::new)
+              );
+            }
+            this.sessionRepository.save(session);
+            if (this.sessionRepository.syncSeatsTaken(id) == 0) {
+              // More participants than seats: roll the whole update back.
+              throw new BadRequestException();
+            }
+            this.promoteWaitlisted(id);
+            // syncSeatsTaken cleared the persistence context: this re-reads.
+            return this.sessionRepository.findById(id)
+              .orElseThrow(NotFoundException::new);
+          });
+      } catch (OptimisticLockingFailureException e) {
+        if (versionFromClient || attempt >= MAX_UPDATE_ATTEMPTS) {
+          throw new ConflictException();
+        }
+      }
+    }
   }
 
-  public void participate(Long id, Long userId) {
-    Session session = this.sessionRepository.findById(id).orElse(null);
-    User user = this.userRepository.findById(userId).orElse(null);
-    if (session == null || user == null) {
+  /**
+   * Takes a seat when one is left, otherwise appends the user to the
+   * session's waitlist.
+   */
+  @Transactional
+  public ParticipationStatus participate(Long id, Long userId) {
+    if (
+      !this.sessionRepository.existsById(id) ||
+      !this.userRepository.existsById(userId)
+    ) {
       throw new NotFoundException();
     }
 
-    boolean alreadyParticipate = session
-      .getUsers()
-      .stream()
-      .anyMatch(o -> o.getId().equals(userId));
-    if (alreadyParticipate) {
+    if (
+      this.participationRepository.existsById(new ParticipationId(id, userId))
+    ) {
       throw new BadRequestException();
     }
 
-    session.getUsers().add(user);
+    if (this.sessionRepository.reserveSeat(id) == 0) {
+      if (this.waitlistRepository.insertIfAbsent(id, userId) == 0) {
+        throw new BadRequestException();
+      }
+      return ParticipationStatus.WAITLISTED;
+    }
+
+    // Rolls back the reserved seat when a concurrent request won.
+    if (this.participationRepository.insertIfAbsent(id, userId) == 0) {
+      throw new BadRequestException();
+    }
+    this.waitlistRepository.deleteBySessionIdAndUserId(id, userId);
+    return ParticipationStatus.PARTICIPATING;
+  }
+
+  /**
+   * Enrols a group with a fixed number of statements whatever its size: one
+   * query validates the ids, one finds existing rows, one reserves the seats
+   * and one JDBC batch inserts the missing rows. Users beyond the capacity
+   * are waitlisted.
+   */
+  @Transactional
+  public Map<Long, ParticipationOutcome> participateAll(
+    Long id,
+    List<Long> userIds
+  ) {
+    if (userIds == null || userIds.size() > MAX_BULK_USERS) {
+      throw new BadRequestException();
+    }
+    if (!this.sessionRepository.existsById(id)) {
+      throw new NotFoundException();
+    }
+
+    Set<Long> requested = new LinkedHashSet<>(userIds);
+    requested.remove(null);
+    Map<Long, ParticipationOutcome> outcomes = new LinkedHashMap<>();
+    if (requested.isEmpty()) {
+      return outcomes;
+    }
+
+    Set<Long> known = new HashSet<>(
+      this.userRepository.findExistingIds(requested)
+    );
+    Set<Long> present = known.isEmpty()
+      ? Collections.emptySet()
+      : new HashSet<>(
+        this.participationRepository.findUserIdsBySessionIdAndUserIdIn(
+            id,
+            known
+          )
+      );
+
+    List<Long> missing = new ArrayList<>();
+    for (Long userId : requested) {
+      if (!known.contains(userId)) {
+        outcomes.put(userId, ParticipationOutcome.UNKNOWN_USER);
+      } else if (present.contains(userId)) {
+        outcomes.put(userId, ParticipationOutcome.ALREADY_PRESENT);
+      } else {
+        outcomes.put(userId, ParticipationOutcome.ADDED);
+        missing.add(userId);
+      }
+    }
+    if (missing.isEmpty()) {
+      return outcomes;
+    }
+
+    int seats = this.reserveSeats(id, missing.size());
+    List<Long> seated = missing.subList(0, seats);
+    if (!seated.isEmpty()) {
+      int[] inserted = this.participationRepository.batchInsert(id, seated);
+      int lost = 0;
+      for (int i = 0; i < inserted.length; i++) {
+        // Added by a concurrent request since the lookup above.
+        if (inserted[i] == 0) {
+          outcomes.put(seated.get(i), ParticipationOutcome.ALREADY_PRESENT);
+          lost++;
+        }
+      }
+      if (lost > 0) {
+        this.sessionRepository.releaseSeats(id, lost);
+      }
+      this.waitlistRepository.deleteBySessionIdAndUserIdIn(id, seated);
+    }
 
-    this.sessionRepository.save(session);
+    for (Long userId : missing.subList(seats, missing.size())) {
+      this.waitlistRepository.insertIfAbsent(id, userId);
+      outcomes.put(userId, ParticipationOutcome.WAITLISTED);
+    }
+    return outcomes;
   }
 
+  /**
+   * Leaves the session or its waitlist; a freed seat goes to the waitlist.
+   * Like participate, it writes the session row before the participation
+   * and waitlist rows, so a concurrent join and leave cannot deadlock.
+   */
+  @Transactional
   public void noLongerParticipate(Long id, Long userId) {
-    Session session = this.sessionRepository.findById(id).orElse(null);
-    if (session == null) {
+    boolean seatReleased = this.sessionRepository.releaseSeat(id) == 1;
+    if (!seatReleased && !this.sessionRepository.existsById(id)) {
       throw new NotFoundException();
     }
 
-    boolean alreadyParticipate = session
-      .getUsers()
-      .stream()
-      .anyMatch(o -> o.getId().equals(userId));
-    if (!alreadyParticipate) {
+    if (
+      this.participationRepository.deleteBySessionIdAndUserId(id, userId) == 0
+    ) {
+      if (
+        this.waitlistRepository.deleteBySessionIdAndUserId(id, userId) == 0
+      ) {
+        throw new BadRequestException();
+      }
+      if (seatReleased) {
+        // Only on the waitlist: give back the seat released above.
+        this.sessionRepository.restoreSeat(id);
+      }
+      return;
+    }
+
+    this.promoteWaitlisted(id);
+  }
+
+  /** Reserves up to {@code wanted} seats and returns how many were taken. */
+  private int reserveSeats(Long id, int wanted) {
+    SeatAvailability seats =
+      this.sessionRepository.findSeatAvailability(id)
+        .orElseThrow(NotFoundException::new);
+    int granted = seats.getCapacity() == null
+      ? wanted
+      : Math.max(
+        0,
+        Math.min(wanted, seats.getCapacity() - seats.getSeatsTaken())
+      );
+
+    if (granted > 0 && this.sessionRepository.reserveSeats(id, granted) == 0) {
+      // Seats were taken since the read: take what is left one at a time.
+      granted = 0;
+      while (granted < wanted && this.sessionRepository.reserveSeat(id) == 1) {
+        granted++;
+      }
+    }
+    return granted;
+  }
+
+  private void promoteWaitlisted(Long id) {
+    List<WaitlistEntry> candidates =
+      this.waitlistRepository.findBySessionIdOrderByIdAsc(
+          id,
+          PageRequest.of(0, PROMOTION_CANDIDATES)
+        );
+
+    for (WaitlistEntry entry : candidates) {
+      if (this.sessionRepository.reserveSeat(id) == 0) {
+        return;
+      }
+      if (
+        this.waitlistRepository.deleteEntry(entry.getId()) == 0 ||
+        this.participationRepository.insertIfAbsent(id, entry.getUserId()) == 0
+      ) {
+        this.sessionRepository.releaseSeat(id);
+      }
+    }
+  }
+
+  /** Dates are computed from the first one, so Jan 31 monthly gives Feb 28. */
+  private static List<Date> occurrenceDates(
+    Date first,
+    RecurrenceRequest recurrence
+  ) {
+    Integer count = recurrence.getCount();
+    Date until = recurrence.getUntil();
+    if ((count == null) == (until == null)) {
       throw new BadRequestException();
     }
 
-    session.setUsers(
-      session
-        .getUsers()
-        .stream()
-        .filter(user -> !user.getId().equals(userId))
-        .collect(Collectors.toList())
-    );
+    ZoneId zone = ZoneId.systemDefault();
+    LocalDateTime start = LocalDateTime.ofInstant(first.toInstant(), zone);
+    LocalDateTime end = until != null
+      ? LocalDateTime.ofInstant(until.toInstant(), zone)
+      : null;
 
-    this.sessionRepository.save(session);
+    List<Date> dates = new ArrayList<>();
+    for (int i = 1; count == null || i <= count; i++) {
+      LocalDateTime next = start.plus(
+        (long) i * recurrence.getInterval(),
+        recurrence.getFrequency().getUnit()
+      );
+      if (end != null && next.isAfter(end)) {
+        break;
+      }
+      if (dates.size() == MAX_OCCURRENCES) {
+        throw new BadRequestException();
+      }
+      dates.add(Date.from(next.atZone(zone).toInstant()));
+    }
+    return dates;
   }
 }
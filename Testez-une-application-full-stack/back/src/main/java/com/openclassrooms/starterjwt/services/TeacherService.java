@@ -2,23 +2,129 @@ package com.openclassrooms.starterjwt.services;
 
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 
+/**
+ * Teachers are read from a fully loaded in-memory snapshot, reloaded after
+ * {@link #invalidate()} or {@code oc.app.teacherCache.ttlMs} (0 keeps it until
+ * invalidated). Teachers are written outside the API, so an id missing from
+ * the snapshot is looked up in the database before being reported unknown.
+ * The snapshot holds detached copies and hands out fresh ones, so callers
+ * never share or attach its instances.
+ */
 @Service
 public class TeacherService {
 
   private final TeacherRepository teacherRepository;
 
+  @Value("${oc.app.teacherCache.ttlMs:300000}")
+  private long ttlMs;
+
+  private volatile Snapshot snapshot;
+
   public TeacherService(TeacherRepository teacherRepository) {
     this.teacherRepository = teacherRepository;
   }
 
   public List<Teacher> findAll() {
-    return this.teacherRepository.findAll();
+    List<Teacher> all = snapshot().all;
+    List<Teacher> teachers = new ArrayList<>(all.size());
+    for (Teacher teacher : all) {
+      teachers.add(copyOf(teacher));
+    }
+    return teachers;
   }
 
   public Teacher findById(Long id) {
-    return this.teacherRepository.findById(id).orElse(null);
+    Teacher teacher = snapshot().byId.get(id);
+    if (teacher != null) {
+      return copyOf(teacher);
+    }
+
+    Teacher stored = this.teacherRepository.findById(id).orElse(null);
+    if (stored != null) {
+      // Inserted after the snapshot was loaded.
+      invalidate();
+    }
+    return stored;
+  }
+
+  public String getEtag() {
+    return snapshot().etag;
+  }
+
+  public void invalidate() {
+    this.snapshot = null;
+  }
+
+  private Snapshot snapshot() {
+    Snapshot current = this.snapshot;
+    if (current != null && !current.isExpired(ttlMs)) {
+      return current;
+    }
+
+    synchronized (this) {
+      current = this.snapshot;
+      if (current == null || current.isExpired(ttlMs)) {
+        current = new Snapshot(this.teacherRepository.findAll());
+        this.snapshot = current;
+      }
+      return current;
+    }
+  }
+
+  private static Teacher copyOf(Teacher teacher) {
+    return Teacher
+      .builder()
+      .id(teacher.getId())
+      .firstName(teacher.getFirstName())
+      .lastName(teacher.getLastName())
+      .createdAt(teacher.getCreatedAt())
+      .updatedAt(teacher.getUpdatedAt())
+      .build();
+  }
+
+  private static final class Snapshot {
+
+    private final List<Teacher> all;
+
+    private final Map<Long, Teacher> byId;
+
+    private final String etag;
+
+    private final long loadedAt = System.currentTimeMillis();
+
+    private Snapshot(List<Teacher> teachers) {
+      this.all = new ArrayList<>(teachers.size());
+      this.byId = new HashMap<>();
+      StringBuilder version = new StringBuilder();
+      for (Teacher loaded : teachers) {
+        Teacher teacher = copyOf(loaded);
+        this.all.add(teacher);
+        this.byId.put(teacher.getId(), teacher);
+        version
+          .append(teacher.getId())
+          .append(':')
+          .append(teacher.getUpdatedAt())
+          .append(';');
+      }
+      this.etag =
+        "\"" +
+        DigestUtils.md5DigestAsHex(
+          version.toString().getBytes(StandardCharsets.UTF_8)
+        ) +
+        "\"";
+    }
+
+    private boolean isExpired(long ttlMs) {
+      return ttlMs > 0 && System.currentTimeMillis() - loadedAt >= ttlMs;
+    }
   }
 }
@@ -2,6 +2,10 @@ package com.openclassrooms.starterjwt.services;
 
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationService;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCache;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -9,15 +13,33 @@ public class UserService {
 
   private final UserRepository userRepository;
 
-  public UserService(UserRepository userRepository) {
+  private final TokenRevocationService tokenRevocationService;
+
+  private final UserDetailsCache userDetailsCache;
+
+  public UserService(
+    UserRepository userRepository,
+    TokenRevocationService tokenRevocationService,
+    UserDetailsCache userDetailsCache
+  ) {
     this.userRepository = userRepository;
+    this.tokenRevocationService = tokenRevocationService;
+    this.userDetailsCache = userDetailsCache;
   }
 
   public void delete(Long id) {
+    this.userRepository
+      .findById(id)
+      .ifPresent(user -> this.userDetailsCache.invalidate(user.getEmail()));
     this.userRepository.deleteById(id);
+    this.tokenRevocationService.revokeUser(id);
   }
 
   public User findById(Long id) {
     return this.userRepository.findById(id).orElse(null);
   }
+
+  public List<User> findAllById(Collection<Long> ids) {
+    return this.userRepository.findAllById(ids);
+  }
 }
@@ -0,0 +1,24 @@
+-- PARTICIPATE gets a composite primary key. Rebuilding the table also drops
+-- duplicate rows left by the keyless V1 table.
+CREATE TABLE `PARTICIPATE_NEW` (
+  `session_id` INT NOT NULL,
+  `user_id` INT NOT NULL,
+  PRIMARY KEY (`session_id`, `user_id`),
+  INDEX `IDX_PARTICIPATE_USER_SESSION` (`user_id`, `session_id`),
+  CONSTRAINT `FK_PARTICIPATE_SESSION` FOREIGN KEY (`session_id`) REFERENCES `SESSIONS` (`id`),
+  CONSTRAINT `FK_PARTICIPATE_USER` FOREIGN KEY (`user_id`) REFERENCES `USERS` (`id`)
+);
+
+INSERT IGNORE INTO `PARTICIPATE_NEW` (`session_id`, `user_id`)
+SELECT `session_id`, `user_id`
+FROM `PARTICIPATE`
+WHERE `session_id` IS NOT NULL AND `user_id` IS NOT NULL;
+
+DROP TABLE `PARTICIPATE`;
+
+RENAME TABLE `PARTICIPATE_NEW` TO `PARTICIPATE`;
+
+-- Fails if the same email was registered twice; such rows must be merged first.
+ALTER TABLE `USERS` ADD CONSTRAINT `UK_USERS_EMAIL` UNIQUE (`email`);
+
+CREATE INDEX `IDX_SESSIONS_DATE_ID` ON `SESSIONS` (`date`, `id`);
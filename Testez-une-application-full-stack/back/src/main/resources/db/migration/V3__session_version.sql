@@ -0,0 +1,3 @@
+-- Optimistic locking counter for SESSIONS, bumped by every entity update and
+-- by every participation change.
+ALTER TABLE `SESSIONS` ADD COLUMN `version` BIGINT NOT NULL DEFAULT 0;
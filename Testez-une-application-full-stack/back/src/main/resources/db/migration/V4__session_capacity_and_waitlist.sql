@@ -0,0 +1,23 @@
+-- Optional capacity per session (NULL means unlimited) and a denormalised
+-- count of PARTICIPATE rows so that a seat can be taken with one conditional
+-- UPDATE instead of counting participants.
+ALTER TABLE `SESSIONS`
+  ADD COLUMN `capacity` INT NULL,
+  ADD COLUMN `seats_taken` INT NOT NULL DEFAULT 0;
+
+UPDATE `SESSIONS` s
+SET s.`seats_taken` = (
+  SELECT COUNT(*) FROM `PARTICIPATE` p WHERE p.`session_id` = s.`id`
+);
+
+-- Users waiting for a seat, served in id order.
+CREATE TABLE `WAITLIST` (
+  `id` BIGINT PRIMARY KEY AUTO_INCREMENT,
+  `session_id` INT NOT NULL,
+  `user_id` INT NOT NULL,
+  `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  UNIQUE KEY `UK_WAITLIST_SESSION_USER` (`session_id`, `user_id`),
+  INDEX `IDX_WAITLIST_SESSION_ID` (`session_id`, `id`),
+  CONSTRAINT `FK_WAITLIST_SESSION` FOREIGN KEY (`session_id`) REFERENCES `SESSIONS` (`id`) ON DELETE CASCADE,
+  CONSTRAINT `FK_WAITLIST_USER` FOREIGN KEY (`user_id`) REFERENCES `USERS` (`id`) ON DELETE CASCADE
+);
@@ -0,0 +1,11 @@
+-- Backing tables of the pooled id generators (MySQL has no sequences). Each
+-- holds the next free id; Hibernate reserves 50 ids per update, so rows
+-- inserted outside Hibernate must not rely on AUTO_INCREMENT any more.
+CREATE TABLE `USERS_SEQ` (`next_val` BIGINT NOT NULL);
+INSERT INTO `USERS_SEQ` SELECT COALESCE(MAX(`id`), 0) + 1 FROM `USERS`;
+
+CREATE TABLE `TEACHERS_SEQ` (`next_val` BIGINT NOT NULL);
+INSERT INTO `TEACHERS_SEQ` SELECT COALESCE(MAX(`id`), 0) + 1 FROM `TEACHERS`;
+
+CREATE TABLE `SESSIONS_SEQ` (`next_val` BIGINT NOT NULL);
+INSERT INTO `SESSIONS_SEQ` SELECT COALESCE(MAX(`id`), 0) + 1 FROM `SESSIONS`;
@@ -1,6 +1,7 @@
 package com.openclassrooms.starterjwt.integration;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 import com.openclassrooms.starterjwt.models.User;
@@ -13,11 +14,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
@@ -28,9 +28,6 @@ public class LoginIntTest {
   @Autowired
   private MockMvc mockMvc;
 
-  @MockBean
-  private AuthenticationManager authenticationManager;
-
   @MockBean
   private JwtUtils jwtUtils;
 
@@ -42,57 +39,66 @@ public class LoginIntTest {
 
   @Test
   public void testLogin_ShouldReturnJwtResponse() throws Exception {
-    Authentication authentication = mock(Authentication.class);
-
-    UserDetailsImpl userDetails = new UserDetailsImpl(
-      10L,
-      "test@test.com",
-      "first",
-      "last",
-      true,
-      "password"
-    );
-    when(authenticationManager.authenticate(any())).thenReturn(authentication);
-    when(authenticationManager.authenticate(any()).getPrincipal())
-      .thenReturn(userDetails);
+    User user = new User("test@test.com", "last", "first", "encoded", true)
+      .setId(10L);
+    when(userRepository.findByEmail("test@test.com"))
+      .thenReturn(Optional.of(user));
+    when(passwordEncoder.matches("password", "encoded")).thenReturn(true);
     when(jwtUtils.generateJwtToken(any())).thenReturn("mockedToken");
-    when(userRepository.findByEmail(any()))
-      .thenReturn(
-        Optional.of(
-          new User("test@test.com", "lastname", "firstname", "password", true)
-        )
-      );
 
     String requestBody =
       "{ \"email\": \"test@test.com\", \"password\": \"password\" }";
 
-    mockMvc
+    MvcResult asyncResult = mockMvc
       .perform(
         MockMvcRequestBuilders
           .post("/api/auth/login")
           .content(requestBody)
           .contentType("application/json")
       )
+      .andExpect(MockMvcResultMatchers.request().asyncStarted())
+      .andReturn();
+
+    mockMvc
+      .perform(MockMvcRequestBuilders.asyncDispatch(asyncResult))
       .andExpect(MockMvcResultMatchers.status().isOk())
-      .andExpect(MockMvcResultMatchers.jsonPath("$.token").exists());
+      .andExpect(MockMvcResultMatchers.jsonPath("$.token").exists())
+      .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(10))
+      .andExpect(MockMvcResultMatchers.jsonPath("$.admin").value(true));
+    // Loaded for the password check only; the response reuses it.
+    verify(userRepository, atMost(1)).findByEmail(any());
+    verify(jwtUtils)
+      .generateJwtToken(
+        argThat((Authentication authentication) ->
+          ((UserDetailsImpl) authentication.getPrincipal()).getId() == 10L
+        )
+      );
   }
 
   @Test
   public void testLoginWithWrongCredentials_ShouldReturnUnauthorized()
     throws Exception {
-    when(authenticationManager.authenticate(any()))
-      .thenThrow(new BadCredentialsException("Bad credentials"));
+    User user = new User("wrong@test.com", "last", "first", "encoded", false)
+      .setId(11L);
+    when(userRepository.findByEmail("wrong@test.com"))
+      .thenReturn(Optional.of(user));
+    when(passwordEncoder.matches(anyString(), anyString())).thenReturn(false);
 
     String requestBody =
-      "{ \"email\": \"test@test.com\", \"password\": \"wrongpassword\" }";
+      "{ \"email\": \"wrong@test.com\", \"password\": \"wrongpassword\" }";
 
-    mockMvc
+    MvcResult asyncResult = mockMvc
       .perform(
         MockMvcRequestBuilders
           .post("/api/auth/login")
           .content(requestBody)
           .contentType("application/json")
       )
+      .andExpect(MockMvcResultMatchers.request().asyncStarted())
+      .andReturn();
+
+    mockMvc
+      .perform(MockMvcRequestBuilders.asyncDispatch(asyncResult))
       .andExpect(MockMvcResultMatchers.status().isUnauthorized())
       .andExpect(MockMvcResultMatchers.jsonPath("$.token").doesNotExist())
       .andExpect(MockMvcResultMatchers.jsonPath("$.status").value(401))
@@ -0,0 +1,93 @@
+package com.openclassrooms.starterjwt.integration;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+@SpringBootTest(
+  properties = {
+    "oc.app.metrics.scrapeUsername=scraper",
+    "oc.app.metrics.scrapePassword=scrape-secret",
+  }
+)
+@AutoConfigureMockMvc
+// Tests only get a simple registry by default, without the Prometheus endpoint
+@AutoConfigureMetrics
+public class MetricsEndpointIntTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  public void testPrometheus_WithoutCredentials_ShouldReturnUnauthorized()
+    throws Exception {
+    mockMvc
+      .perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+      .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+  }
+
+  @Test
+  public void testPrometheus_WithWrongPassword_ShouldReturnUnauthorized()
+    throws Exception {
+    mockMvc
+      .perform(
+        MockMvcRequestBuilders
+          .get("/actuator/prometheus")
+          .with(httpBasic("scraper", "wrong"))
+      )
+      .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+  }
+
+  @Test
+  @WithMockUser
+  public void testPrometheus_AsApplicationUser_ShouldReturnForbidden()
+    throws Exception {
+    mockMvc
+      .perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+      .andExpect(MockMvcResultMatchers.status().isForbidden());
+  }
+
+  @Test
+  public void testPrometheus_AsScraper_ShouldReturnMetrics() throws Exception {
+    mockMvc
+      .perform(
+        MockMvcRequestBuilders
+          .get("/actuator/prometheus")
+          .with(httpBasic("scraper", "scrape-secret"))
+      )
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andExpect(
+        MockMvcResultMatchers.content().string(containsString("jvm_memory"))
+      );
+  }
+
+  @Test
+  @WithMockUser
+  public void testMetrics_AsApplicationUser_ShouldReturnForbidden()
+    throws Exception {
+    mockMvc
+      .perform(MockMvcRequestBuilders.get("/actuator/metrics"))
+      .andExpect(MockMvcResultMatchers.status().isForbidden());
+  }
+
+  @Test
+  public void testMetrics_AsScraper_ShouldReturnMeterNames() throws Exception {
+    mockMvc
+      .perform(
+        MockMvcRequestBuilders
+          .get("/actuator/metrics")
+          .with(httpBasic("scraper", "scrape-secret"))
+      )
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andExpect(MockMvcResultMatchers.jsonPath("$.names").isArray());
+  }
+}
@@ -12,6 +12,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
@@ -36,13 +37,18 @@ public class RegisterIntTest {
     when(userRepository.existsByEmail(any())).thenReturn(false);
     when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
 
-    mockMvc
+    MvcResult asyncResult = mockMvc
       .perform(
         MockMvcRequestBuilders
           .post("/api/auth/register")
           .content(requestBody)
           .contentType("application/json")
       )
+      .andExpect(MockMvcResultMatchers.request().asyncStarted())
+      .andReturn();
+
+    mockMvc
+      .perform(MockMvcRequestBuilders.asyncDispatch(asyncResult))
       .andExpect(MockMvcResultMatchers.status().isOk())
       .andExpect(
         MockMvcResultMatchers
@@ -59,13 +65,18 @@ public class RegisterIntTest {
 
     when(userRepository.existsByEmail(any())).thenReturn(true);
 
-    mockMvc
+    MvcResult asyncResult = mockMvc
       .perform(
         MockMvcRequestBuilders
           .post("/api/auth/register")
           .content(requestBody)
           .contentType("application/json")
       )
+      .andExpect(MockMvcResultMatchers.request().asyncStarted())
+      .andReturn();
+
+    mockMvc
+      .perform(MockMvcRequestBuilders.asyncDispatch(asyncResult))
       .andExpect(MockMvcResultMatchers.status().isBadRequest())
       .andExpect(
         MockMvcResultMatchers
@@ -1,7 +1,10 @@
 package com.openclassrooms.starterjwt.integration;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -11,6 +14,7 @@ import static org.mockito.Mockito.when;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.openclassrooms.starterjwt.dto.SessionDto;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
 import com.openclassrooms.starterjwt.mapper.SessionMapperImpl;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
@@ -82,7 +86,7 @@ public class SessionIntTest {
     SessionDto sessionDto = mockSessionDto;
 
     when(sessionService.getById(anyLong())).thenReturn(session);
-    when(sessionMapper.toDto(session)).thenReturn(sessionDto);
+    when(sessionMapper.toDto(eq(session), anyList())).thenReturn(sessionDto);
 
     mockMvc
       .perform(MockMvcRequestBuilders.get("/api/session/1"))
@@ -107,7 +111,8 @@ public class SessionIntTest {
     sessionDtoList.add(sessionDto);
 
     when(sessionService.findAll()).thenReturn(sessionList);
-    when(sessionMapper.toDto(sessionList)).thenReturn(sessionDtoList);
+    when(sessionMapper.toDto(eq(sessionList), anyMap()))
+      .thenReturn(sessionDtoList);
 
     mockMvc
       .perform(MockMvcRequestBuilders.get("/api/session"))
@@ -180,6 +185,27 @@ public class SessionIntTest {
     verify(sessionService, times(1)).update(anyLong(), any());
   }
 
+  @Test
+  @WithMockUser
+  public void testSession_PutUpdateWithStaleVersion_ShouldReturnConflict()
+    throws Exception {
+    SessionDto sessionDto = mockSessionDto;
+
+    when(sessionMapper.toEntity(sessionDto)).thenReturn(mockSession);
+    doThrow(ConflictException.class)
+      .when(sessionService)
+      .update(1L, mockSession);
+
+    mockMvc
+      .perform(
+        MockMvcRequestBuilders
+          .put("/api/session/1")
+          .content(asJsonString(sessionDto))
+          .contentType(MediaType.APPLICATION_JSON)
+      )
+      .andExpect(MockMvcResultMatchers.status().isConflict());
+  }
+
   @Test
   @WithMockUser
   public void testSessionWithWrongIdParameter_PutUpdate_ShouldReturnBadRequest()
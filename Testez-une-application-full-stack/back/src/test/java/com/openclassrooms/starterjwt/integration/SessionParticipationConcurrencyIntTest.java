@@ -0,0 +1,153 @@
+package com.openclassrooms.starterjwt.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.models.ParticipationId;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.ParticipationRepository;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Joins and leaves race on one session from several threads. Each call runs
+ * in its own transaction, so a lock-order inversion between them surfaces as
+ * a deadlock instead of a rejected request.
+ */
+@SpringBootTest
+public class SessionParticipationConcurrencyIntTest {
+
+  private static final int CAPACITY = 4;
+
+  private static final int THREADS = 8;
+
+  private static final int ROUNDS = 20;
+
+  @Autowired
+  private SessionService sessionService;
+
+  @Autowired
+  private SessionRepository sessionRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private ParticipationRepository participationRepository;
+
+  private Session session;
+
+  private final List<User> users = new ArrayList<>();
+
+  @BeforeEach
+  public void setUp() {
+    String run = UUID.randomUUID().toString().substring(0, 8);
+    for (int i = 0; i < THREADS; i++) {
+      users.add(
+        userRepository.save(
+          new User(
+            "race-" + run + "-" + i + "@test.com",
+            "Last",
+            "First",
+            "password",
+            false
+          )
+        )
+      );
+    }
+    session =
+      sessionRepository.save(
+        Session
+          .builder()
+          .name("Race")
+          .description("Concurrent participation")
+          .date(new Date())
+          .capacity(CAPACITY)
+          .seatsTaken(0)
+          .build()
+      );
+  }
+
+  @AfterEach
+  public void tearDown() {
+    // PARTICIPATE rows do not cascade; WAITLIST rows do.
+    participationRepository.deleteAllById(
+      users
+        .stream()
+        .map(user -> new ParticipationId(session.getId(), user.getId()))
+        .filter(participationRepository::existsById)
+        .collect(Collectors.toList())
+    );
+    sessionRepository.deleteById(session.getId());
+    userRepository.deleteAll(users);
+  }
+
+  @Test
+  public void testJoinAndLeaveConcurrently_ShouldNotDeadlockOrLeakSeats()
+    throws Exception {
+    // Arrange
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    for (User user : users) {
+      futures.add(
+        executor.submit(() -> {
+          start.await();
+          for (int i = 0; i < ROUNDS; i++) {
+            joinAndLeave(user.getId());
+          }
+          return null;
+        })
+      );
+    }
+
+    // Act
+    start.countDown();
+    try {
+      for (Future<?> future : futures) {
+        // A deadlock or lock wait timeout fails the test here.
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // Assert
+    Session stored = sessionRepository.findById(session.getId()).get();
+    assertThat(stored.getSeatsTaken())
+      .isEqualTo(
+        participationRepository.findUserIdsBySessionId(session.getId()).size()
+      )
+      .isZero();
+  }
+
+  private void joinAndLeave(Long userId) {
+    try {
+      sessionService.participate(session.getId(), userId);
+    } catch (BadRequestException e) {
+      // Already in the session or on its waitlist.
+    }
+    try {
+      sessionService.noLongerParticipate(session.getId(), userId);
+    } catch (BadRequestException e) {
+      // Promotion moved the user between the two lists meanwhile.
+    }
+  }
+}
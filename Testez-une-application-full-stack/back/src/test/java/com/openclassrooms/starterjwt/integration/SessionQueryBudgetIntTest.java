@@ -0,0 +1,116 @@
+package com.openclassrooms.starterjwt.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.support.QueryBudget;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Real services and repositories: the statement count of a listing must not
+ * depend on how many sessions, teachers and participants there are. Seeded
+ * rows are rolled back with the test transaction.
+ */
+@SpringBootTest(properties = "oc.app.queryCount.recordViolations=true")
+@AutoConfigureMockMvc
+@Transactional
+public class SessionQueryBudgetIntTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private SessionRepository sessionRepository;
+
+  @Autowired
+  private TeacherRepository teacherRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Test
+  @WithMockUser
+  public void testSession_FindAll_StatementCountShouldNotGrowWithData()
+    throws Exception {
+    seed(2, 1);
+    long few = countListingStatements();
+
+    seed(30, 5);
+    long many = countListingStatements();
+
+    assertThat(many).isEqualTo(few);
+    QueryBudget.assertWithinThreshold(this::listSessions);
+  }
+
+  private long countListingStatements() throws Exception {
+    return QueryBudget.count(this::listSessions);
+  }
+
+  private void listSessions() throws Exception {
+    mockMvc
+      .perform(MockMvcRequestBuilders.get("/api/session"))
+      .andExpect(MockMvcResultMatchers.status().isOk());
+  }
+
+  /** Each session gets its own teacher and participants. */
+  private void seed(int sessions, int participantsPerSession) {
+    String run = UUID.randomUUID().toString().substring(0, 8);
+    for (int i = 0; i < sessions; i++) {
+      Teacher teacher = teacherRepository.save(
+        Teacher.builder().firstName("Budget" + i).lastName("TEACHER").build()
+      );
+
+      List<User> participants = new ArrayList<>(participantsPerSession);
+      for (int j = 0; j < participantsPerSession; j++) {
+        participants.add(
+          userRepository.save(
+            new User(
+              "budget-" + run + "-" + i + "-" + j + "@test.com",
+              "Last",
+              "First",
+              "password",
+              false
+            )
+          )
+        );
+      }
+
+      sessionRepository.save(
+        Session
+          .builder()
+          .name("Budget " + i)
+          .description("Query budget session")
+          .date(new Date())
+          .teacher(teacher)
+          .users(participants)
+          .seatsTaken(participantsPerSession)
+          .build()
+      );
+    }
+
+    // The listing must not be served from, or flush, this persistence context.
+    entityManager.flush();
+    entityManager.clear();
+  }
+}
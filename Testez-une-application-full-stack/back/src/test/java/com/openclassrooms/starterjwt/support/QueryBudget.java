@@ -0,0 +1,42 @@
+package com.openclassrooms.starterjwt.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.openclassrooms.starterjwt.metrics.QueryCounter;
+
+/**
+ * Counts the SQL statements issued by a block run on the test thread, e.g. a
+ * MockMvc call, and fails the test when it exceeds its budget. With
+ * oc.app.queryCount.recordViolations=true, assertWithinThreshold fails on any
+ * request above oc.app.queryCount.threshold instead.
+ */
+public final class QueryBudget {
+
+  @FunctionalInterface
+  public interface Action {
+    void run() throws Exception;
+  }
+
+  private QueryBudget() {}
+
+  public static long count(Action action) throws Exception {
+    long before = QueryCounter.current();
+    action.run();
+    return QueryCounter.current() - before;
+  }
+
+  public static void assertAtMost(long budget, Action action)
+    throws Exception {
+    assertThat(count(action))
+      .as("SQL statements issued")
+      .isLessThanOrEqualTo(budget);
+  }
+
+  public static void assertWithinThreshold(Action action) throws Exception {
+    QueryCounter.drainViolations();
+    action.run();
+    assertThat(QueryCounter.drainViolations())
+      .as("requests above oc.app.queryCount.threshold")
+      .isEmpty();
+  }
+}
@@ -4,36 +4,47 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 import com.openclassrooms.starterjwt.controllers.AuthController;
-import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.exception.ServiceUnavailableException;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
 import com.openclassrooms.starterjwt.payload.response.JwtResponse;
 import com.openclassrooms.starterjwt.payload.response.MessageResponse;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.services.PasswordHashingPool;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCache;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @ExtendWith(MockitoExtension.class)
 class AuthControllerTest {
 
   @Mock
-  private AuthenticationManager authenticationManager;
+  private UserDetailsService userDetailsService;
 
   @Mock
   private JwtUtils jwtUtils;
@@ -44,16 +55,34 @@ class AuthControllerTest {
   @Mock
   private UserRepository userRepository;
 
+  @Mock
+  private UserDetailsCache userDetailsCache;
+
+  @Spy
+  private PasswordHashingPool passwordHashingPool = new PasswordHashingPool(
+    1,
+    10
+  );
+
+  @Spy
+  private AsyncTaskExecutor mvcAsyncExecutor = new SimpleAsyncTaskExecutor(
+    "mvc-async-"
+  );
+
   @InjectMocks
   private AuthController authController;
 
+  @AfterEach
+  void tearDown() {
+    passwordHashingPool.shutdown();
+  }
+
   @Test
   void authenticateUser_ShouldReturnJwtResponse() {
     // Arrange
     LoginRequest loginRequest = new LoginRequest();
     loginRequest.setEmail("test@test.com");
     loginRequest.setPassword("password");
-    Authentication authentication = mock(Authentication.class);
 
     UserDetailsImpl userDetails = new UserDetailsImpl(
       10L,
@@ -61,23 +90,32 @@ class AuthControllerTest {
       "first",
       "last",
       true,
-      "password"
+      "encodedPassword"
     );
 
-    when(authenticationManager.authenticate(any())).thenReturn(authentication);
-    when(authentication.getPrincipal()).thenReturn(userDetails);
-    when(jwtUtils.generateJwtToken(authentication)).thenReturn("mockedToken");
-    when(userRepository.findByEmail(userDetails.getUsername()))
-      .thenReturn(
-        Optional.of(
-          new User("test@test.com", "lastname", "firstname", "password", true)
-        )
-      );
+    AtomicReference<String> loadThread = new AtomicReference<>();
+    when(userDetailsService.loadUserByUsername("test@test.com"))
+      .thenAnswer(invocation -> {
+        loadThread.set(Thread.currentThread().getName());
+        return userDetails;
+      });
+    AtomicReference<String> checkThread = new AtomicReference<>();
+    when(passwordEncoder.matches("password", "encodedPassword"))
+      .thenAnswer(invocation -> {
+        checkThread.set(Thread.currentThread().getName());
+        return true;
+      });
+    AtomicReference<String> tokenThread = new AtomicReference<>();
+    when(jwtUtils.generateJwtToken(any()))
+      .thenAnswer(invocation -> {
+        tokenThread.set(Thread.currentThread().getName());
+        return "mockedToken";
+      });
 
     // Act
-    ResponseEntity<?> responseEntity = authController.authenticateUser(
-      loginRequest
-    );
+    ResponseEntity<?> responseEntity = authController
+      .authenticateUser(loginRequest)
+      .join();
 
     // Assert
     assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -85,18 +123,58 @@ class AuthControllerTest {
     JwtResponse jwtResponse = (JwtResponse) responseEntity.getBody();
     assertThat(jwtResponse.getToken()).isEqualTo("mockedToken");
 
-    assertThat(SecurityContextHolder.getContext().getAuthentication())
-      .isEqualTo(authentication);
-
     assertThat(jwtResponse.getId()).isEqualTo(userDetails.getId());
     assertThat(jwtResponse.getUsername()).isEqualTo(userDetails.getUsername());
     assertThat(jwtResponse.getFirstName())
       .isEqualTo(userDetails.getFirstName());
     assertThat(jwtResponse.getLastName()).isEqualTo(userDetails.getLastName());
-    assertThat(jwtResponse.getAdmin()).isEqualTo(userDetails.getAdmin());
+    assertThat(jwtResponse.getAdmin()).isTrue();
     assertThat(jwtResponse.getType()).isEqualTo("Bearer");
 
-    verify(userRepository, times(1)).findByEmail(userDetails.getUsername());
+    ArgumentCaptor<Authentication> authentication = ArgumentCaptor.forClass(
+      Authentication.class
+    );
+    verify(jwtUtils).generateJwtToken(authentication.capture());
+    assertThat(authentication.getValue().getPrincipal()).isSameAs(userDetails);
+
+    assertThat(loadThread.get()).startsWith("mvc-async-");
+    assertThat(checkThread.get()).startsWith("password-hash-");
+    assertThat(tokenThread.get()).startsWith("mvc-async-");
+    verifyNoInteractions(userRepository);
+  }
+
+  @Test
+  void authenticateUser_WithWrongPassword_ShouldReturnUnauthorized() {
+    // Arrange
+    LoginRequest loginRequest = new LoginRequest();
+    loginRequest.setEmail("test@test.com");
+    loginRequest.setPassword("wrongpassword");
+
+    when(userDetailsService.loadUserByUsername("test@test.com"))
+      .thenReturn(
+        new UserDetailsImpl(
+          10L,
+          "test@test.com",
+          "first",
+          "last",
+          false,
+          "encodedPassword"
+        )
+      );
+    when(passwordEncoder.matches("wrongpassword", "encodedPassword"))
+      .thenReturn(false);
+
+    // Act
+    CompletableFuture<ResponseEntity<?>> response =
+      authController.authenticateUser(loginRequest);
+
+    // Assert
+    CompletionException exception = assertThrows(
+      CompletionException.class,
+      response::join
+    );
+    assertThat(exception).hasCauseInstanceOf(BadCredentialsException.class);
+    verifyNoInteractions(jwtUtils);
   }
 
   @Test
@@ -106,25 +184,46 @@ class AuthControllerTest {
     loginRequest.setEmail("unknown@test.com");
     loginRequest.setPassword("password");
 
-    when(authenticationManager.authenticate(any()))
-      .thenThrow(BadCredentialsException.class);
-
-    // Act & Assert
-    assertThrows(
-      BadCredentialsException.class,
-      () -> {
-        ResponseEntity<?> responseEntity = authController.authenticateUser(
-          loginRequest
-        );
-        assertThat(responseEntity.getStatusCode())
-          .isEqualTo(HttpStatus.UNAUTHORIZED);
-        assertThat(responseEntity.getBody())
-          .isInstanceOf(MessageResponse.class);
-        MessageResponse messageResponse = (MessageResponse) responseEntity.getBody();
-        assertThat(messageResponse.getMessage()).isEqualTo("Bad credentials");
-        verify(userRepository, never()).findByEmail(anyString());
-      }
+    when(userDetailsService.loadUserByUsername("unknown@test.com"))
+      .thenThrow(UsernameNotFoundException.class);
+
+    // Act
+    CompletableFuture<ResponseEntity<?>> response =
+      authController.authenticateUser(loginRequest);
+
+    // Assert
+    CompletionException exception = assertThrows(
+      CompletionException.class,
+      response::join
     );
+    assertThat(exception).hasCauseInstanceOf(BadCredentialsException.class);
+    // The password is still checked, so the email cannot be told apart.
+    verify(passwordEncoder).matches(eq("password"), any());
+    verifyNoInteractions(jwtUtils);
+  }
+
+  @Test
+  void authenticateUser_PoolSaturated_ShouldThrowServiceUnavailable() {
+    // Arrange
+    LoginRequest loginRequest = new LoginRequest();
+    loginRequest.setEmail("test@test.com");
+    loginRequest.setPassword("password");
+    doThrow(new ServiceUnavailableException())
+      .when(passwordHashingPool)
+      .submit(any());
+
+    // Act
+    CompletableFuture<ResponseEntity<?>> response =
+      authController.authenticateUser(loginRequest);
+
+    // Assert
+    CompletionException exception = assertThrows(
+      CompletionException.class,
+      response::join
+    );
+    assertThat(exception)
+      .hasCauseInstanceOf(ServiceUnavailableException.class);
+    verify(passwordEncoder, never()).matches(any(), any());
   }
 
   @Test
@@ -140,15 +239,17 @@ class AuthControllerTest {
       .thenReturn(false);
     when(passwordEncoder.encode(signupRequest.getPassword()))
       .thenReturn("encodedPassword");
+    AtomicReference<String> saveThread = new AtomicReference<>();
     when(userRepository.save(any()))
-      .thenReturn(
-        new User("newUser@test.com", "Doe", "John", "password", false)
-      );
+      .thenAnswer(invocation -> {
+        saveThread.set(Thread.currentThread().getName());
+        return invocation.getArgument(0);
+      });
 
     // Act
-    ResponseEntity<?> responseEntity = authController.registerUser(
-      signupRequest
-    );
+    ResponseEntity<?> responseEntity = authController
+      .registerUser(signupRequest)
+      .join();
 
     // Assert
     assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -159,6 +260,8 @@ class AuthControllerTest {
 
     verify(userRepository, times(1)).existsByEmail("newuser@test.com");
     verify(userRepository, times(1)).save(any());
+    assertThat(saveThread.get()).startsWith("mvc-async-");
+    verify(userDetailsCache, times(1)).invalidate("newuser@test.com");
   }
 
   @Test
@@ -174,9 +277,9 @@ class AuthControllerTest {
       .thenReturn(true);
 
     // Act
-    ResponseEntity<?> responseEntity = authController.registerUser(
-      signupRequest
-    );
+    ResponseEntity<?> responseEntity = authController
+      .registerUser(signupRequest)
+      .join();
 
     // Assert
     assertThat(responseEntity.getStatusCode())
@@ -188,5 +291,36 @@ class AuthControllerTest {
 
     verify(userRepository, times(1)).existsByEmail("existinguser@test.com");
     verify(userRepository, never()).save(any());
+    verify(userDetailsCache, never()).invalidate(anyString());
+    verify(passwordHashingPool, never()).submit(any());
+  }
+
+  @Test
+  void registerUser_EmailRegisteredConcurrently_ShouldReturnBadRequest() {
+    // Arrange
+    SignupRequest signupRequest = new SignupRequest();
+    signupRequest.setEmail("racing@test.com");
+    signupRequest.setFirstName("firstname");
+    signupRequest.setLastName("lastname");
+    signupRequest.setPassword("password");
+
+    when(userRepository.existsByEmail("racing@test.com")).thenReturn(false);
+    when(passwordEncoder.encode("password")).thenReturn("encodedPassword");
+    when(userRepository.save(any()))
+      .thenThrow(new DataIntegrityViolationException("UK_USERS_EMAIL"));
+
+    // Act
+    ResponseEntity<?> responseEntity = authController
+      .registerUser(signupRequest)
+      .join();
+
+    // Assert
+    assertThat(responseEntity.getStatusCode())
+      .isEqualTo(HttpStatus.BAD_REQUEST);
+    assertThat(responseEntity.getBody()).isInstanceOf(MessageResponse.class);
+    MessageResponse messageResponse = (MessageResponse) responseEntity.getBody();
+    assertThat(messageResponse.getMessage())
+      .isEqualTo("Error: Email is already taken!");
+    verify(userDetailsCache, never()).invalidate(anyString());
   }
 }
@@ -0,0 +1,105 @@
+package com.openclassrooms.starterjwt.unit.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.openclassrooms.starterjwt.controllers.ImportController;
+import com.openclassrooms.starterjwt.payload.response.ImportReport;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.services.CsvImportService;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+@ExtendWith(MockitoExtension.class)
+class ImportControllerTest {
+
+  @Mock
+  private CsvImportService csvImportService;
+
+  @InjectMocks
+  private ImportController importController;
+
+  @Test
+  void importUsers_AsAdmin_ShouldReturnReport() throws Exception {
+    // Arrange
+    UserDetailsImpl admin = UserDetailsImpl
+      .builder()
+      .id(1L)
+      .admin(true)
+      .build();
+    InputStream csv = new ByteArrayInputStream(new byte[0]);
+    ImportReport report = new ImportReport();
+    when(csvImportService.importUsers(csv)).thenReturn(report);
+
+    // Act
+    ResponseEntity<?> responseEntity = importController.importUsers(admin, csv);
+
+    // Assert
+    assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(responseEntity.getBody()).isSameAs(report);
+  }
+
+  @Test
+  void importUsers_AsRegularUser_ShouldReturnForbidden() throws Exception {
+    // Arrange
+    UserDetailsImpl user = UserDetailsImpl
+      .builder()
+      .id(2L)
+      .admin(false)
+      .build();
+
+    // Act
+    ResponseEntity<?> responseEntity = importController.importUsers(
+      user,
+      new ByteArrayInputStream(new byte[0])
+    );
+
+    // Assert
+    assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    verifyNoInteractions(csvImportService);
+  }
+
+  @Test
+  void importSessions_AsAdmin_ShouldReturnReport() throws Exception {
+    // Arrange
+    UserDetailsImpl admin = UserDetailsImpl
+      .builder()
+      .id(1L)
+      .admin(true)
+      .build();
+    InputStream csv = new ByteArrayInputStream(new byte[0]);
+    ImportReport report = new ImportReport();
+    when(csvImportService.importSessions(csv)).thenReturn(report);
+
+    // Act
+    ResponseEntity<?> responseEntity = importController.importSessions(
+      admin,
+      csv
+    );
+
+    // Assert
+    assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(responseEntity.getBody()).isSameAs(report);
+  }
+
+  @Test
+  void importSessions_WithoutPrincipal_ShouldReturnForbidden()
+    throws Exception {
+    // Act
+    ResponseEntity<?> responseEntity = importController.importSessions(
+      null,
+      new ByteArrayInputStream(new byte[0])
+    );
+
+    // Assert
+    assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    verifyNoInteractions(csvImportService);
+  }
+}
@@ -6,19 +6,38 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 import com.openclassrooms.starterjwt.controllers.SessionController;
+import com.openclassrooms.starterjwt.dto.SessionBriefDto;
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.models.ParticipationOutcome;
+import com.openclassrooms.starterjwt.models.ParticipationStatus;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.pagination.KeysetPage;
+import com.openclassrooms.starterjwt.payload.request.RecurrenceRequest;
+import com.openclassrooms.starterjwt.repository.projection.SessionBrief;
+import com.openclassrooms.starterjwt.repository.projection.SessionSummary;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.services.SessionExportService;
 import com.openclassrooms.starterjwt.services.SessionService;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @ExtendWith(MockitoExtension.class)
 class SessionControllerTest {
@@ -29,6 +48,9 @@ class SessionControllerTest {
   @Mock
   private SessionMapper sessionMapper;
 
+  @Mock
+  private SessionExportService sessionExportService;
+
   @InjectMocks
   private SessionController sessionController;
 
@@ -37,21 +59,47 @@ class SessionControllerTest {
     // Arrange
     Long sessionId = 1L;
     Session session = new Session();
+    when(sessionService.getEtag(sessionId)).thenReturn("\"1-1000\"");
     when(sessionService.getById(sessionId)).thenReturn(session);
 
+    List<Long> userIds = Arrays.asList(2L, 3L);
+    when(sessionService.findParticipantIds(sessionId)).thenReturn(userIds);
+
     SessionDto sessionDto = new SessionDto();
-    when(sessionMapper.toDto(session)).thenReturn(sessionDto);
+    when(sessionMapper.toDto(session, userIds)).thenReturn(sessionDto);
 
     // Act
     ResponseEntity<?> responseEntity = sessionController.findById(
-      sessionId.toString()
+      sessionId.toString(),
+      webRequest(null)
     );
 
     // Assert
     assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(responseEntity.getHeaders().getETag()).isEqualTo("\"1-1000\"");
     assertThat(responseEntity.getBody()).isEqualTo(sessionDto);
   }
 
+  @Test
+  void findById_WithMatchingEtag_ShouldReturnNotModified() {
+    // Arrange
+    Long sessionId = 1L;
+    when(sessionService.getEtag(sessionId)).thenReturn("\"1-1000\"");
+
+    // Act
+    ResponseEntity<?> responseEntity = sessionController.findById(
+      sessionId.toString(),
+      webRequest("\"1-1000\"")
+    );
+
+    // Assert
+    assertThat(responseEntity.getStatusCode())
+      .isEqualTo(HttpStatus.NOT_MODIFIED);
+    assertThat(responseEntity.getBody()).isNull();
+    verify(sessionService, never()).getById(anyLong());
+    verifyNoInteractions(sessionMapper);
+  }
+
   @Test
   void findById_SessionDoesNotExist_ShouldReturnNotFound() {
     // Arrange
@@ -60,7 +108,8 @@ class SessionControllerTest {
 
     // Act
     ResponseEntity<?> responseEntity = sessionController.findById(
-      sessionId.toString()
+      sessionId.toString(),
+      webRequest(null)
     );
 
     // Assert
@@ -72,19 +121,207 @@ class SessionControllerTest {
   void findAll_ShouldReturnSessionDtoList() {
     // Arrange
     List<Session> sessions = Collections.singletonList(new Session());
+    when(sessionService.getCollectionEtag()).thenReturn("\"1-1000\"");
     when(sessionService.findAll()).thenReturn(sessions);
 
+    Map<Long, List<Long>> userIds = Collections.singletonMap(
+      1L,
+      Arrays.asList(2L, 3L)
+    );
+    when(sessionService.findParticipantIds(sessions)).thenReturn(userIds);
+
     List<SessionDto> sessionDtos = Collections.singletonList(new SessionDto());
-    when(sessionMapper.toDto(sessions)).thenReturn(sessionDtos);
+    when(sessionMapper.toDto(sessions, userIds)).thenReturn(sessionDtos);
 
     // Act
-    ResponseEntity<?> responseEntity = sessionController.findAll();
+    ResponseEntity<?> responseEntity = sessionController.findAll(
+      webRequest(null)
+    );
 
     // Assert
     assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(responseEntity.getHeaders().getETag()).isEqualTo("\"1-1000\"");
     assertThat(responseEntity.getBody()).isEqualTo(sessionDtos);
   }
 
+  @Test
+  void findAll_WithMatchingEtag_ShouldReturnNotModified() {
+    // Arrange
+    when(sessionService.getCollectionEtag()).thenReturn("\"1-1000\"");
+
+    // Act
+    ResponseEntity<?> responseEntity = sessionController.findAll(
+      webRequest("\"1-1000\"")
+    );
+
+    // Assert
+    assertThat(responseEntity.getStatusCode())
+      .isEqualTo(HttpStatus.NOT_MODIFIED);
+    verify(sessionService, never()).findAll();
+    verifyNoInteractions(sessionMapper);
+  }
+
+  @Test
+  void export_AsCsv_ShouldStreamCsvAttachment() throws Exception {
+    // Act
+    ResponseEntity<StreamingResponseBody> responseEntity =
+      sessionController.export(admin(), "csv");
+    responseEntity.getBody().writeTo(new ByteArrayOutputStream());
+
+    // Assert
+    assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(responseEntity.getHeaders().getContentType())
+      .isEqualTo(MediaType.parseMediaType("text/csv;charset=UTF-8"));
+    verify(sessionExportService).writeCsv(any());
+    verify(sessionExportService, never()).writeNdjson(any());
+  }
+
+  @Test
+  void export_ByDefault_ShouldStreamNdjson() throws Exception {
+    // Act
+    ResponseEntity<StreamingResponseBody> responseEntity =
+      sessionController.export(admin(), "ndjson");
+    responseEntity.getBody().writeTo(new ByteArrayOutputStream());
+
+    // Assert
+    assertThat(responseEntity.getHeaders().getContentType())
+      .isEqualTo(MediaType.parseMediaType("application/x-ndjson"));
+    verify(sessionExportService).writeNdjson(any());
+  }
+
+  @Test
+  void export_WithUnknownFormat_ShouldReturnBadRequest() {
+    // Act
+    ResponseEntity<StreamingResponseBody> responseEntity =
+      sessionController.export(admin(), "xml");
+
+    // Assert
+    assertThat(responseEntity.getStatusCode())
+      .isEqualTo(HttpStatus.BAD_REQUEST);
+    verifyNoInteractions(sessionExportService);
+  }
+
+  @Test
+  void export_AsRegularUser_ShouldReturnForbidden() {
+    // Arrange
+    UserDetailsImpl user = UserDetailsImpl
+      .builder()
+      .id(2L)
+      .admin(false)
+      .build();
+
+    // Act
+    ResponseEntity<StreamingResponseBody> responseEntity =
+      sessionController.export(user, "csv");
+
+    // Assert
+    assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    verifyNoInteractions(sessionExportService);
+  }
+
+  @Test
+  void findPage_ShouldReturnMappedPageWithNextCursor() {
+    // Arrange
+    List<SessionSummary> summaries = Collections.singletonList(
+      mock(SessionSummary.class)
+    );
+    when(sessionService.findPage("cursor", 10))
+      .thenReturn(new KeysetPage<>(summaries, "next"));
+
+    List<SessionSummaryDto> sessionDtos = Collections.singletonList(
+      new SessionSummaryDto()
+    );
+    when(sessionMapper.toSummaryDto(summaries)).thenReturn(sessionDtos);
+
+    // Act
+    ResponseEntity<?> responseEntity = sessionController.findPage(
+      "cursor",
+      10
+    );
+
+    // Assert
+    assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    KeysetPage<?> page = (KeysetPage<?>) responseEntity.getBody();
+    assertThat(page.getItems()).isEqualTo(sessionDtos);
+    assertThat(page.getNextCursor()).isEqualTo("next");
+  }
+
+  @Test
+  void findRange_ShouldReturnMappedPage() {
+    // Arrange
+    Date from = new Date(1704067200000L);
+    Date to = new Date(1704672000000L);
+    List<SessionSummary> summaries = Collections.singletonList(
+      mock(SessionSummary.class)
+    );
+    when(sessionService.findRange(from, to, 3L, "cursor", 10))
+      .thenReturn(new KeysetPage<>(summaries, "next"));
+
+    List<SessionSummaryDto> sessionDtos = Collections.singletonList(
+      new SessionSummaryDto()
+    );
+    when(sessionMapper.toSummaryDto(summaries)).thenReturn(sessionDtos);
+
+    // Act
+    ResponseEntity<?> responseEntity = sessionController.findRange(
+      from,
+      to,
+      3L,
+      "cursor",
+      10
+    );
+
+    // Assert
+    assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    KeysetPage<?> page = (KeysetPage<?>) responseEntity.getBody();
+    assertThat(page.getItems()).isEqualTo(sessionDtos);
+    assertThat(page.getNextCursor()).isEqualTo("next");
+  }
+
+  @Test
+  void findMine_ShouldReturnPageOfAuthenticatedUser() {
+    // Arrange
+    UserDetailsImpl principal = UserDetailsImpl.builder().id(7L).build();
+    List<SessionBrief> briefs = Collections.singletonList(
+      mock(SessionBrief.class)
+    );
+    when(sessionService.findPageForUser(7L, null, 5))
+      .thenReturn(new KeysetPage<>(briefs, null));
+
+    List<SessionBriefDto> briefDtos = Collections.singletonList(
+      new SessionBriefDto()
+    );
+    when(sessionMapper.toBriefDto(briefs)).thenReturn(briefDtos);
+
+    // Act
+    ResponseEntity<?> responseEntity = sessionController.findMine(
+      principal,
+      null,
+      5
+    );
+
+    // Assert
+    assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    KeysetPage<?> page = (KeysetPage<?>) responseEntity.getBody();
+    assertThat(page.getItems()).isEqualTo(briefDtos);
+    assertThat(page.getNextCursor()).isNull();
+  }
+
+  @Test
+  void findMine_WithoutPrincipal_ShouldReturnUnauthorized() {
+    // Act
+    ResponseEntity<?> responseEntity = sessionController.findMine(
+      null,
+      null,
+      null
+    );
+
+    // Assert
+    assertThat(responseEntity.getStatusCode())
+      .isEqualTo(HttpStatus.UNAUTHORIZED);
+    verifyNoInteractions(sessionService);
+  }
+
   @Test
   void testCreate_ShouldReturnSessionDto() {
     // Arrange
@@ -102,6 +339,43 @@ class SessionControllerTest {
     assertThat(responseEntity.getBody()).isEqualTo(sessionDto);
   }
 
+  @Test
+  void testCreateSeries_ShouldReturnCreatedSessionDtos() {
+    // Arrange
+    RecurrenceRequest recurrence = new RecurrenceRequest();
+    List<Session> sessions = Arrays.asList(new Session(), new Session());
+    List<SessionDto> sessionDtos = Arrays.asList(
+      new SessionDto(),
+      new SessionDto()
+    );
+    when(sessionService.createSeries(1L, recurrence)).thenReturn(sessions);
+    when(sessionMapper.toDto(sessions)).thenReturn(sessionDtos);
+
+    // Act
+    ResponseEntity<?> responseEntity = sessionController.createSeries(
+      "1",
+      recurrence
+    );
+
+    // Assert
+    assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(responseEntity.getBody()).isEqualTo(sessionDtos);
+  }
+
+  @Test
+  void testCreateSeries_InvalidIdFormat_ShouldReturnBadRequest() {
+    // Act
+    ResponseEntity<?> responseEntity = sessionController.createSeries(
+      "invalidId",
+      new RecurrenceRequest()
+    );
+
+    // Assert
+    assertThat(responseEntity.getStatusCode())
+      .isEqualTo(HttpStatus.BAD_REQUEST);
+    verifyNoInteractions(sessionService);
+  }
+
   @Test
   void testUpdate_SessionExists_ShouldReturnUpdatedSessionDto() {
     // Arrange
@@ -184,6 +458,8 @@ class SessionControllerTest {
     // Arrange
     String sessionId = "1";
     String userId = "2";
+    when(sessionService.participate(1L, 2L))
+      .thenReturn(ParticipationStatus.PARTICIPATING);
 
     // Act
     ResponseEntity<?> responseEntity = sessionController.participate(
@@ -193,9 +469,74 @@ class SessionControllerTest {
 
     // Assert
     assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(responseEntity.getBody())
+      .isEqualTo(ParticipationStatus.PARTICIPATING);
     verify(sessionService, times(1)).participate(anyLong(), anyLong());
   }
 
+  @Test
+  void testParticipate_SessionFull_ShouldReturnAccepted() {
+    // Arrange
+    when(sessionService.participate(1L, 2L))
+      .thenReturn(ParticipationStatus.WAITLISTED);
+
+    // Act
+    ResponseEntity<?> responseEntity = sessionController.participate("1", "2");
+
+    // Assert
+    assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+    assertThat(responseEntity.getBody())
+      .isEqualTo(ParticipationStatus.WAITLISTED);
+  }
+
+  @Test
+  void testParticipateAll_AsAdmin_ShouldReturnOutcomes() {
+    // Arrange
+    UserDetailsImpl admin = UserDetailsImpl
+      .builder()
+      .id(1L)
+      .admin(true)
+      .build();
+    List<Long> userIds = Arrays.asList(2L, 3L);
+    Map<Long, ParticipationOutcome> outcomes = Collections.singletonMap(
+      2L,
+      ParticipationOutcome.ADDED
+    );
+    when(sessionService.participateAll(1L, userIds)).thenReturn(outcomes);
+
+    // Act
+    ResponseEntity<?> responseEntity = sessionController.participateAll(
+      admin,
+      "1",
+      userIds
+    );
+
+    // Assert
+    assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(responseEntity.getBody()).isEqualTo(outcomes);
+  }
+
+  @Test
+  void testParticipateAll_AsRegularUser_ShouldReturnForbidden() {
+    // Arrange
+    UserDetailsImpl user = UserDetailsImpl
+      .builder()
+      .id(2L)
+      .admin(false)
+      .build();
+
+    // Act
+    ResponseEntity<?> responseEntity = sessionController.participateAll(
+      user,
+      "1",
+      Arrays.asList(2L, 3L)
+    );
+
+    // Assert
+    assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    verifyNoInteractions(sessionService);
+  }
+
   @Test
   void testParticipate_InvalidIdFormat_ShouldReturnBadRequest() {
     // Arrange
@@ -248,4 +589,19 @@ class SessionControllerTest {
       .isEqualTo(HttpStatus.BAD_REQUEST);
     verify(sessionService, never()).noLongerParticipate(anyLong(), anyLong());
   }
+
+  private ServletWebRequest webRequest(String ifNoneMatch) {
+    MockHttpServletRequest request = new MockHttpServletRequest(
+      "GET",
+      "/api/session"
+    );
+    if (ifNoneMatch != null) {
+      request.addHeader("If-None-Match", ifNoneMatch);
+    }
+    return new ServletWebRequest(request, new MockHttpServletResponse());
+  }
+
+  private static UserDetailsImpl admin() {
+    return UserDetailsImpl.builder().id(1L).admin(true).build();
+  }
 }
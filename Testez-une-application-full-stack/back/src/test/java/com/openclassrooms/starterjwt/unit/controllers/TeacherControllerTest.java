@@ -17,6 +17,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 @ExtendWith(MockitoExtension.class)
 class TeacherControllerTest {
@@ -35,17 +38,41 @@ class TeacherControllerTest {
     // Arrange
     String teacherId = "1";
     Teacher teacher = new Teacher();
+    teacher.setId(1L);
     when(teacherService.findById(anyLong())).thenReturn(teacher);
     when(teacherMapper.toDto(teacher)).thenReturn(new TeacherDto());
 
     // Act
-    ResponseEntity<?> responseEntity = teacherController.findById(teacherId);
+    ResponseEntity<?> responseEntity = teacherController.findById(
+      teacherId,
+      webRequest(null)
+    );
 
     // Assert
     assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(responseEntity.getHeaders().getETag()).isEqualTo("\"1-0\"");
     assertThat(responseEntity.getBody()).isInstanceOf(TeacherDto.class);
   }
 
+  @Test
+  void testFindById_WithMatchingEtag_ShouldReturnNotModified() {
+    // Arrange
+    Teacher teacher = new Teacher();
+    teacher.setId(1L);
+    when(teacherService.findById(1L)).thenReturn(teacher);
+
+    // Act
+    ResponseEntity<?> responseEntity = teacherController.findById(
+      "1",
+      webRequest("\"1-0\"")
+    );
+
+    // Assert
+    assertThat(responseEntity.getStatusCode())
+      .isEqualTo(HttpStatus.NOT_MODIFIED);
+    verifyNoInteractions(teacherMapper);
+  }
+
   @Test
   void testFindById_TeacherDoesNotExist_ShouldReturnNotFound() {
     // Arrange
@@ -53,7 +80,10 @@ class TeacherControllerTest {
     when(teacherService.findById(anyLong())).thenReturn(null);
 
     // Act
-    ResponseEntity<?> responseEntity = teacherController.findById(teacherId);
+    ResponseEntity<?> responseEntity = teacherController.findById(
+      teacherId,
+      webRequest(null)
+    );
 
     // Assert
     assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
@@ -66,7 +96,8 @@ class TeacherControllerTest {
 
     // Act
     ResponseEntity<?> responseEntity = teacherController.findById(
-      invalidTeacherId
+      invalidTeacherId,
+      webRequest(null)
     );
 
     // Assert
@@ -78,19 +109,52 @@ class TeacherControllerTest {
   void testFindAll_ShouldReturnListOfTeacherDto() {
     // Arrange
     List<Teacher> teachers = Arrays.asList(new Teacher(), new Teacher());
+    when(teacherService.getEtag()).thenReturn("\"v1\"");
     when(teacherService.findAll()).thenReturn(teachers);
     when(teacherMapper.toDto(teachers))
       .thenReturn(Arrays.asList(new TeacherDto(), new TeacherDto()));
 
     // Act
-    ResponseEntity<?> responseEntity = teacherController.findAll();
+    ResponseEntity<?> responseEntity = teacherController.findAll(
+      webRequest(null)
+    );
 
     // Assert
     assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(responseEntity.getHeaders().getETag()).isEqualTo("\"v1\"");
     assertThat(responseEntity.getBody()).isInstanceOf(List.class);
     List<?> teacherDtos = (List<?>) responseEntity.getBody();
     assertThat(teacherDtos)
       .hasSize(2)
       .allMatch(dto -> dto instanceof TeacherDto);
   }
+
+  @Test
+  void testFindAll_WithMatchingEtag_ShouldReturnNotModified() {
+    // Arrange
+    when(teacherService.getEtag()).thenReturn("\"v1\"");
+
+    // Act
+    ResponseEntity<?> responseEntity = teacherController.findAll(
+      webRequest("\"v1\"")
+    );
+
+    // Assert
+    assertThat(responseEntity.getStatusCode())
+      .isEqualTo(HttpStatus.NOT_MODIFIED);
+    assertThat(responseEntity.getBody()).isNull();
+    verify(teacherService, never()).findAll();
+    verifyNoInteractions(teacherMapper);
+  }
+
+  private ServletWebRequest webRequest(String ifNoneMatch) {
+    MockHttpServletRequest request = new MockHttpServletRequest(
+      "GET",
+      "/api/teacher"
+    );
+    if (ifNoneMatch != null) {
+      request.addHeader("If-None-Match", ifNoneMatch);
+    }
+    return new ServletWebRequest(request, new MockHttpServletResponse());
+  }
 }
@@ -1,21 +1,29 @@
 package com.openclassrooms.starterjwt.unit.mapper;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.openclassrooms.starterjwt.dto.SessionBriefDto;
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
 import com.openclassrooms.starterjwt.mapper.SessionMapperImpl;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.projection.SessionBrief;
+import com.openclassrooms.starterjwt.repository.projection.SessionSummary;
 import com.openclassrooms.starterjwt.services.TeacherService;
 import com.openclassrooms.starterjwt.services.UserService;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -46,9 +54,11 @@ public class SessionMapperTest {
     when(teacherService.findById(anyLong())).thenReturn(teacher);
 
     User user1 = new User();
+    user1.setId(2L);
     User user2 = new User();
-    when(userService.findById(2L)).thenReturn(user1);
-    when(userService.findById(3L)).thenReturn(user2);
+    user2.setId(3L);
+    when(userService.findAllById(Arrays.asList(2L, 3L)))
+      .thenReturn(Arrays.asList(user2, user1));
 
     // Act
     Session result = sessionMapper.toEntity(sessionDto);
@@ -57,6 +67,38 @@ public class SessionMapperTest {
     assertThat(result.getDescription()).isEqualTo(sessionDto.getDescription());
     assertThat(result.getTeacher()).isEqualTo(teacher);
     assertThat(result.getUsers()).containsExactly(user1, user2);
+    verify(userService, never()).findById(anyLong());
+  }
+
+  @Test
+  void testToEntity_WithUnknownUserIds_ShouldDropThem() {
+    // Arrange
+    SessionDto sessionDto = new SessionDto();
+    sessionDto.setUsers(Arrays.asList(2L, 99L));
+
+    User user1 = new User();
+    user1.setId(2L);
+    when(userService.findAllById(Arrays.asList(2L, 99L)))
+      .thenReturn(Arrays.asList(user1));
+
+    // Act
+    Session result = sessionMapper.toEntity(sessionDto);
+
+    // Assert
+    assertThat(result.getUsers()).containsExactly(user1);
+  }
+
+  @Test
+  void testToEntity_WithoutUsers_ShouldNotQueryUsers() {
+    // Arrange
+    SessionDto sessionDto = new SessionDto();
+
+    // Act
+    Session result = sessionMapper.toEntity(sessionDto);
+
+    // Assert
+    assertThat(result.getUsers()).isEmpty();
+    verify(userService, never()).findAllById(any());
   }
 
   @Test
@@ -95,6 +137,82 @@ public class SessionMapperTest {
     assertThat(result.getUsers()).containsExactly(1L, 2L);
   }
 
+  @Test
+  void testToDto_WithUserIds_ShouldNotReadUsers() {
+    // Arrange
+    Session session = new Session();
+    session.setId(1L);
+    session.setDescription("Test Session");
+    session.setTeacher(new Teacher());
+    session.setUsers(null);
+
+    // Act
+    SessionDto result = sessionMapper.toDto(session, Arrays.asList(4L, 5L));
+
+    // Assert
+    assertThat(result.getId()).isEqualTo(1L);
+    assertThat(result.getDescription()).isEqualTo(session.getDescription());
+    assertThat(result.getUsers()).containsExactly(4L, 5L);
+  }
+
+  @Test
+  void testSessionList_ToDto_WithUserIds_ShouldFillUsersPerSession() {
+    // Arrange
+    Session session1 = new Session();
+    session1.setId(1L);
+    Session session2 = new Session();
+    session2.setId(2L);
+    Map<Long, List<Long>> userIdsBySession = new HashMap<>();
+    userIdsBySession.put(1L, Arrays.asList(4L, 5L));
+
+    // Act
+    List<SessionDto> resultList = sessionMapper.toDto(
+      Arrays.asList(session1, session2),
+      userIdsBySession
+    );
+
+    // Assert
+    assertThat(resultList).hasSize(2);
+    assertThat(resultList.get(0).getUsers()).containsExactly(4L, 5L);
+    assertThat(resultList.get(1).getUsers()).isEmpty();
+  }
+
+  @Test
+  void testToSummaryDto() {
+    // Arrange
+    SessionSummary summary = mock(SessionSummary.class);
+    when(summary.getId()).thenReturn(1L);
+    when(summary.getName()).thenReturn("Session");
+    when(summary.getTeacherId()).thenReturn(3L);
+    when(summary.getParticipantCount()).thenReturn(12L);
+
+    // Act
+    SessionSummaryDto result = sessionMapper.toSummaryDto(summary);
+
+    // Assert
+    assertThat(result.getId()).isEqualTo(1L);
+    assertThat(result.getName()).isEqualTo("Session");
+    assertThat(result.getTeacher_id()).isEqualTo(3L);
+    assertThat(result.getParticipantCount()).isEqualTo(12L);
+  }
+
+  @Test
+  void testToBriefDto() {
+    // Arrange
+    SessionBrief brief = mock(SessionBrief.class);
+    when(brief.getId()).thenReturn(1L);
+    when(brief.getName()).thenReturn("Session");
+    when(brief.getTeacherId()).thenReturn(3L);
+
+    // Act
+    SessionBriefDto result = sessionMapper.toBriefDto(brief);
+
+    // Assert
+    assertThat(result.getId()).isEqualTo(1L);
+    assertThat(result.getName()).isEqualTo("Session");
+    assertThat(result.getTeacher_id()).isEqualTo(3L);
+  }
+
   @Test
   void testToDto_WithNullSession_ShouldReturnNull() {
     // Arrange
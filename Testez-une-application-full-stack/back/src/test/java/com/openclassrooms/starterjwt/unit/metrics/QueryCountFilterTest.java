@@ -0,0 +1,184 @@
+package com.openclassrooms.starterjwt.unit.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.openclassrooms.starterjwt.metrics.QueryCountFilter;
+import com.openclassrooms.starterjwt.metrics.QueryCounter;
+import com.openclassrooms.starterjwt.metrics.QueryCountingDataSource;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+class QueryCountFilterTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  private final DataSource target = mock(DataSource.class);
+
+  private MockHttpServletRequest request() {
+    MockHttpServletRequest request = new MockHttpServletRequest(
+      "GET",
+      "/api/session/1"
+    );
+    request.setAttribute(
+      HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+      "/api/session/{id}"
+    );
+    return request;
+  }
+
+  private FilterChain chainIssuing(int statements) throws Exception {
+    Connection connection = mock(Connection.class);
+    when(target.getConnection()).thenReturn(connection);
+    when(connection.createStatement()).thenReturn(mock(Statement.class));
+    DataSource dataSource = new QueryCountingDataSource(target);
+
+    return (req, res) -> {
+      try (Connection counted = dataSource.getConnection()) {
+        for (int i = 0; i < statements; i++) {
+          counted.createStatement().execute("select " + i);
+        }
+      } catch (SQLException e) {
+        throw new IllegalStateException(e);
+      }
+    };
+  }
+
+  @Test
+  void testDoFilter_ShouldRecordStatementsPerRequest() throws Exception {
+    // Arrange
+    QueryCountFilter filter = new QueryCountFilter(registry, 10, false);
+
+    // Act
+    filter.doFilter(request(), new MockHttpServletResponse(), chainIssuing(3));
+
+    // Assert
+    DistributionSummary summary = registry
+      .get("http.server.requests.queries")
+      .tag("method", "GET")
+      .tag("uri", "/api/session/{id}")
+      .summary();
+    assertThat(summary.count()).isEqualTo(1);
+    assertThat(summary.totalAmount()).isEqualTo(3.0);
+  }
+
+  @Test
+  void testDoFilter_AboveThreshold_ShouldOnlyWarnByDefault()
+    throws Exception {
+    // Arrange
+    QueryCountFilter filter = new QueryCountFilter(registry, 2, false);
+
+    // Act
+    filter.doFilter(request(), new MockHttpServletResponse(), chainIssuing(5));
+
+    // Assert
+    assertThat(
+      registry.get("http.server.requests.queries").summary().totalAmount()
+    )
+      .isEqualTo(5.0);
+  }
+
+  @Test
+  void testDoFilter_AboveThresholdRecordingViolations_ShouldKeepThem()
+    throws Exception {
+    // Arrange
+    QueryCountFilter filter = new QueryCountFilter(registry, 2, true);
+    QueryCounter.drainViolations();
+
+    // Act
+    filter.doFilter(request(), new MockHttpServletResponse(), chainIssuing(2));
+    filter.doFilter(request(), new MockHttpServletResponse(), chainIssuing(3));
+
+    // Assert
+    List<String> violations = QueryCounter.drainViolations();
+    assertThat(violations).hasSize(1);
+    assertThat(violations.get(0)).contains("issued 3 SQL statements");
+    assertThat(QueryCounter.drainViolations()).isEmpty();
+  }
+
+  @Test
+  void testDoFilter_AboveThresholdByDefault_ShouldNotRecordViolations()
+    throws Exception {
+    // Arrange
+    QueryCountFilter filter = new QueryCountFilter(registry, 2, false);
+    QueryCounter.drainViolations();
+
+    // Act
+    filter.doFilter(request(), new MockHttpServletResponse(), chainIssuing(3));
+
+    // Assert
+    assertThat(QueryCounter.drainViolations()).isEmpty();
+  }
+
+  @Test
+  void testDoFilter_AsyncRequest_ShouldRecordWorkerStatementsOnLastDispatch()
+    throws Exception {
+    // Arrange
+    QueryCountFilter filter = new QueryCountFilter(registry, 10, false);
+    FilterChain onRequestThread = chainIssuing(1);
+    FilterChain onWorkerThread = chainIssuing(2);
+    MockHttpServletRequest request = request();
+    request.setAsyncSupported(true);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+    asyncManager.setAsyncWebRequest(
+      new StandardServletAsyncWebRequest(request, response)
+    );
+    FilterChain startingAsync = (req, res) -> {
+      onRequestThread.doFilter(req, res);
+      Thread worker = new Thread(
+        QueryCounter.propagate(() -> {
+          try {
+            onWorkerThread.doFilter(req, res);
+          } catch (Exception e) {
+            throw new IllegalStateException(e);
+          }
+        })
+      );
+      worker.start();
+      try {
+        worker.join();
+        asyncManager.startDeferredResultProcessing(new DeferredResult<>());
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    };
+
+    // Act
+    filter.doFilter(request, response, startingAsync);
+    boolean recordedBeforeDispatch =
+      registry.find("http.server.requests.queries").summary() != null;
+
+    MockHttpServletRequest dispatch = request();
+    dispatch.setDispatcherType(DispatcherType.ASYNC);
+    dispatch.setAttribute(
+      QueryCountFilter.COUNTER_ATTRIBUTE,
+      request.getAttribute(QueryCountFilter.COUNTER_ATTRIBUTE)
+    );
+    filter.doFilter(dispatch, new MockHttpServletResponse(), (req, res) -> {});
+
+    // Assert
+    assertThat(recordedBeforeDispatch).isFalse();
+    DistributionSummary summary = registry
+      .get("http.server.requests.queries")
+      .summary();
+    assertThat(summary.count()).isEqualTo(1);
+    assertThat(summary.totalAmount()).isEqualTo(3.0);
+  }
+}
@@ -0,0 +1,101 @@
+package com.openclassrooms.starterjwt.unit.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.openclassrooms.starterjwt.metrics.QueryCounter;
+import com.openclassrooms.starterjwt.metrics.QueryCountingDataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class QueryCountingDataSourceTest {
+
+  @Mock
+  private DataSource target;
+
+  @Mock
+  private Connection connection;
+
+  @Mock
+  private PreparedStatement preparedStatement;
+
+  @Mock
+  private Statement statement;
+
+  @Mock
+  private ResultSet resultSet;
+
+  private QueryCountingDataSource dataSource;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    when(target.getConnection()).thenReturn(connection);
+    dataSource = new QueryCountingDataSource(target);
+  }
+
+  @Test
+  void testPreparedStatement_ShouldCountEachExecution() throws Exception {
+    // Arrange
+    when(connection.prepareStatement("select 1")).thenReturn(preparedStatement);
+    when(preparedStatement.executeQuery()).thenReturn(resultSet);
+    long before = QueryCounter.current();
+
+    // Act
+    PreparedStatement prepared = dataSource
+      .getConnection()
+      .prepareStatement("select 1");
+    ResultSet result = prepared.executeQuery();
+    prepared.executeQuery();
+
+    // Assert
+    assertThat(result).isSameAs(resultSet);
+    assertThat(QueryCounter.current() - before).isEqualTo(2);
+  }
+
+  @Test
+  void testBatch_ShouldCountOncePerExecuteBatch() throws Exception {
+    // Arrange
+    when(connection.prepareStatement("insert")).thenReturn(preparedStatement);
+    long before = QueryCounter.current();
+
+    // Act
+    PreparedStatement prepared = dataSource
+      .getConnection()
+      .prepareStatement("insert");
+    for (int i = 0; i < 50; i++) {
+      prepared.setInt(1, i);
+      prepared.addBatch();
+    }
+    prepared.executeBatch();
+
+    // Assert
+    assertThat(QueryCounter.current() - before).isEqualTo(1);
+    verify(preparedStatement).executeBatch();
+  }
+
+  @Test
+  void testPlainStatement_ShouldCountExecuteAndNotClose() throws Exception {
+    // Arrange
+    when(connection.createStatement()).thenReturn(statement);
+    long before = QueryCounter.current();
+
+    // Act
+    Statement created = dataSource.getConnection().createStatement();
+    created.execute("delete from SESSIONS");
+    created.close();
+
+    // Assert
+    assertThat(QueryCounter.current() - before).isEqualTo(1);
+    verify(statement).close();
+  }
+}
@@ -0,0 +1,32 @@
+package com.openclassrooms.starterjwt.unit.models;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import com.openclassrooms.starterjwt.models.Participation;
+import com.openclassrooms.starterjwt.models.ParticipationId;
+import org.junit.jupiter.api.Test;
+
+public class ParticipationTest {
+
+  @Test
+  public void testParticipationModel() {
+    ParticipationId id = new ParticipationId(1L, 2L);
+    Participation participationUnderTest = new Participation(id);
+
+    assertThat(participationUnderTest.getId().getSessionId()).isEqualTo(1L);
+    assertThat(participationUnderTest.getId().getUserId()).isEqualTo(2L);
+  }
+
+  @Test
+  public void testParticipationId_EqualsAndHashCode() {
+    ParticipationId id1 = new ParticipationId(1L, 2L);
+    ParticipationId id2 = new ParticipationId(1L, 2L);
+    ParticipationId id3 = new ParticipationId(2L, 1L);
+
+    assertEquals(id1, id2);
+    assertNotEquals(id1, id3);
+    assertEquals(id1.hashCode(), id2.hashCode());
+  }
+}
@@ -119,15 +119,14 @@ public class SessionTest {
       testSessionId +
       ", name=Session 1, date=" +
       fixedDate +
-      ", description=Session 1 description, teacher=" +
+      ", description=Session 1 description, capacity=null, seatsTaken=null" +
+      ", teacher=" +
       testTeacher +
-      ", users=" +
-      testUserList +
       ", createdAt=" +
       fixedDateTime +
       ", updatedAt=" +
       fixedDateTime +
-      ")";
+      ", version=null)";
 
     assertEquals(expectedToString, sessionUnderTest.toString());
   }
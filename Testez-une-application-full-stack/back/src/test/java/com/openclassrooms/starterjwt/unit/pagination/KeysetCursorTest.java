@@ -0,0 +1,44 @@
+package com.openclassrooms.starterjwt.unit.pagination;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.pagination.KeysetCursor;
+import java.util.Date;
+import org.junit.jupiter.api.Test;
+
+class KeysetCursorTest {
+
+  private Date fixedDate = new Date(1234567890123L);
+
+  @Test
+  void testEncodeDecode_ShouldRoundTrip() {
+    // Arrange
+    KeysetCursor cursor = KeysetCursor.of(fixedDate, 42L);
+
+    // Act
+    KeysetCursor decoded = KeysetCursor.decode(cursor.encode());
+
+    // Assert
+    assertThat(decoded).isEqualTo(cursor);
+    assertThat(decoded.getDate()).isEqualTo(fixedDate);
+    assertThat(decoded.getId()).isEqualTo(42L);
+  }
+
+  @Test
+  void testDecode_WithNullOrEmptyToken_ShouldReturnNull() {
+    // Act & Assert
+    assertThat(KeysetCursor.decode(null)).isNull();
+    assertThat(KeysetCursor.decode("")).isNull();
+  }
+
+  @Test
+  void testDecode_WithInvalidToken_ShouldThrowBadRequest() {
+    // Act & Assert
+    assertThatExceptionOfType(BadRequestException.class)
+      .isThrownBy(() -> KeysetCursor.decode("not a cursor"));
+    assertThatExceptionOfType(BadRequestException.class)
+      .isThrownBy(() -> KeysetCursor.decode("YWJj"));
+  }
+}
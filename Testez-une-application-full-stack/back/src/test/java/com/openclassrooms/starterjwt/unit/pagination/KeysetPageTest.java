@@ -0,0 +1,73 @@
+package com.openclassrooms.starterjwt.unit.pagination;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.openclassrooms.starterjwt.pagination.KeysetCursor;
+import com.openclassrooms.starterjwt.pagination.KeysetPage;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class KeysetPageTest {
+
+  @Test
+  void testLimit_ShouldApplyDefaultAndCap() {
+    // Act & Assert
+    assertThat(KeysetPage.limit(null)).isEqualTo(KeysetPage.DEFAULT_SIZE);
+    assertThat(KeysetPage.limit(0)).isEqualTo(KeysetPage.DEFAULT_SIZE);
+    assertThat(KeysetPage.limit(5)).isEqualTo(5);
+    assertThat(KeysetPage.limit(10000)).isEqualTo(KeysetPage.MAX_SIZE);
+  }
+
+  @Test
+  void testOf_WithExtraRow_ShouldTrimAndReturnNextCursor() {
+    // Arrange
+    List<Long> rows = Arrays.asList(1L, 2L, 3L);
+
+    // Act
+    KeysetPage<Long> page = KeysetPage.of(
+      rows,
+      2,
+      id -> KeysetCursor.of(new Date(id), id)
+    );
+
+    // Assert
+    assertThat(page.getItems()).containsExactly(1L, 2L);
+    assertThat(KeysetCursor.decode(page.getNextCursor()))
+      .isEqualTo(KeysetCursor.of(new Date(2L), 2L));
+  }
+
+  @Test
+  void testOf_WithoutExtraRow_ShouldHaveNoNextCursor() {
+    // Arrange
+    List<Long> rows = Arrays.asList(1L, 2L);
+
+    // Act
+    KeysetPage<Long> page = KeysetPage.of(
+      rows,
+      2,
+      id -> KeysetCursor.of(new Date(id), id)
+    );
+
+    // Assert
+    assertThat(page.getItems()).containsExactly(1L, 2L);
+    assertThat(page.getNextCursor()).isNull();
+  }
+
+  @Test
+  void testMap_ShouldKeepNextCursor() {
+    // Arrange
+    KeysetPage<Long> page = new KeysetPage<>(Arrays.asList(1L, 2L), "next");
+
+    // Act
+    KeysetPage<String> mapped = page.map(ids ->
+      ids.stream().map(String::valueOf).collect(Collectors.toList())
+    );
+
+    // Assert
+    assertThat(mapped.getItems()).containsExactly("1", "2");
+    assertThat(mapped.getNextCursor()).isEqualTo("next");
+  }
+}
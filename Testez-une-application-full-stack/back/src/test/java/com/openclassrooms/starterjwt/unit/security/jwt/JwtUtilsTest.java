@@ -1,14 +1,22 @@
 package com.openclassrooms.starterjwt.unit.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.when;
 
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Date;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
@@ -20,11 +28,13 @@ class JwtUtilsTest {
   @Mock
   private Authentication authentication;
 
-  @InjectMocks
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
   private JwtUtils jwtUtils;
 
   @BeforeEach
   public void setup() {
+    jwtUtils = new JwtUtils(registry);
     ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3600000);
     ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecretKey");
   }
@@ -101,6 +111,125 @@ class JwtUtilsTest {
     assertThat(jwtUtils.validateJwtToken(emptyClaimsToken)).isFalse();
   }
 
+  @Test
+  void testParseJwtClaims_ShouldCarryPrincipalClaims() {
+    // Arrange
+    String token = generateTestToken();
+
+    // Act
+    Claims claims = jwtUtils.parseJwtClaims(token);
+    UserDetailsImpl userDetails = jwtUtils.getUserDetailsFromClaims(claims);
+
+    // Assert
+    assertThat(claims.getSubject()).isEqualTo("test@test.com");
+    assertThat(userDetails.getId()).isEqualTo(1L);
+    assertThat(userDetails.getUsername()).isEqualTo("test@test.com");
+    assertThat(userDetails.getFirstName()).isEqualTo("firstname");
+    assertThat(userDetails.getLastName()).isEqualTo("lastname");
+    assertThat(userDetails.getAdmin()).isFalse();
+    assertThat(userDetails.getPassword()).isNull();
+  }
+
+  @Test
+  void testParseJwtClaims_InvalidToken_ShouldReturnNull() {
+    // Act & Assert
+    assertThat(jwtUtils.parseJwtClaims("invalidToken")).isNull();
+    assertThat(jwtUtils.parseJwtClaims(generateExpiredTestToken())).isNull();
+  }
+
+  @Test
+  void testGetUserDetailsFromClaims_WithoutPrincipalClaims_ShouldReturnNull() {
+    // Arrange
+    String legacyToken = Jwts
+      .builder()
+      .setSubject("test@test.com")
+      .setIssuedAt(new Date())
+      .setExpiration(new Date(System.currentTimeMillis() + 3600000))
+      .signWith(SignatureAlgorithm.HS512, "testSecretKey")
+      .compact();
+
+    // Act
+    Claims claims = jwtUtils.parseJwtClaims(legacyToken);
+
+    // Assert
+    assertThat(claims).isNotNull();
+    assertThat(jwtUtils.getUserDetailsFromClaims(claims)).isNull();
+  }
+
+  @Test
+  void testParseJwtClaims_ShouldCountOutcomes() {
+    // Arrange
+    String validToken = generateTestToken();
+
+    // Act
+    jwtUtils.validateJwtToken(validToken);
+    jwtUtils.validateJwtToken(validToken);
+    jwtUtils.validateJwtToken("malformedToken");
+    jwtUtils.validateJwtToken(generateExpiredTestToken());
+    jwtUtils.validateJwtToken(generateTestTokenWithInvalidSignature());
+
+    // Assert
+    assertThat(outcomeCount(registry, "valid")).isEqualTo(2.0);
+    assertThat(outcomeCount(registry, "malformed")).isEqualTo(1.0);
+    assertThat(outcomeCount(registry, "expired")).isEqualTo(1.0);
+    assertThat(outcomeCount(registry, "bad_signature")).isEqualTo(1.0);
+  }
+
+  @Test
+  void testParseJwtClaims_VerifiedTokenIsServedFromCache() {
+    // Arrange
+    String token = generateTestToken();
+    Claims first = jwtUtils.parseJwtClaims(token);
+    ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "rotatedSecretKey");
+
+    // Act
+    Claims second = jwtUtils.parseJwtClaims(token);
+
+    // Assert
+    assertThat(second).isSameAs(first);
+    assertThat(jwtUtils.getUserNameFromJwtToken(token))
+      .isEqualTo("test@test.com");
+  }
+
+  @Test
+  void testParseJwtClaims_CachedTokenPastExpiration_ShouldReturnNull() {
+    // Arrange
+    String token = generateTestToken();
+    assertThat(jwtUtils.parseJwtClaims(token)).isNotNull();
+    ReflectionTestUtils.setField(
+      jwtUtils,
+      "clock",
+      Clock.offset(Clock.systemUTC(), Duration.ofHours(2))
+    );
+
+    // Act & Assert
+    assertThat(jwtUtils.parseJwtClaims(token)).isNull();
+  }
+
+  @Test
+  void testGetUserNameFromJwtToken_CachedTokenPastExpiration_ShouldThrow() {
+    // Arrange
+    String token = generateTestToken();
+    jwtUtils.getUserNameFromJwtToken(token);
+    ReflectionTestUtils.setField(
+      jwtUtils,
+      "clock",
+      Clock.offset(Clock.systemUTC(), Duration.ofHours(2))
+    );
+
+    // Act & Assert
+    assertThatThrownBy(() -> jwtUtils.getUserNameFromJwtToken(token))
+      .isInstanceOf(ExpiredJwtException.class);
+  }
+
+  private double outcomeCount(SimpleMeterRegistry registry, String outcome) {
+    return registry
+      .get("jwt.validation")
+      .tag("outcome", outcome)
+      .counter()
+      .count();
+  }
+
   private String generateTestToken() {
     UserDetailsImpl userDetails = createUserDetails();
     when(authentication.getPrincipal()).thenReturn(userDetails);
@@ -0,0 +1,97 @@
+package com.openclassrooms.starterjwt.unit.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationService;
+import java.util.Date;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+  @Mock
+  private UserRepository userRepository;
+
+  private TokenRevocationService tokenRevocationService;
+
+  @BeforeEach
+  public void setup() {
+    tokenRevocationService =
+      new TokenRevocationService(userRepository, 3600000L, 60000L, 2);
+  }
+
+  @Test
+  void testIsRevoked_ExistingUser_ShouldCheckDatabaseOncePerWindow() {
+    // Arrange
+    when(userRepository.existsById(1L)).thenReturn(true);
+    Date issuedAt = new Date();
+
+    // Act
+    boolean firstCheck = tokenRevocationService.isRevoked(1L, issuedAt);
+    boolean secondCheck = tokenRevocationService.isRevoked(1L, issuedAt);
+
+    // Assert
+    assertThat(firstCheck).isFalse();
+    assertThat(secondCheck).isFalse();
+    verify(userRepository, times(1)).existsById(1L);
+  }
+
+  @Test
+  void testIsRevoked_DeletedUser_ShouldBeRevoked() {
+    // Arrange
+    when(userRepository.existsById(1L)).thenReturn(false);
+
+    // Act & Assert
+    assertThat(tokenRevocationService.isRevoked(1L, new Date())).isTrue();
+  }
+
+  @Test
+  void testRevokeUser_ShouldRejectTokensIssuedBefore() {
+    // Arrange
+    Date issuedBefore = new Date(System.currentTimeMillis() - 1000);
+
+    // Act
+    tokenRevocationService.revokeUser(1L);
+
+    // Assert
+    assertThat(tokenRevocationService.isRevoked(1L, issuedBefore)).isTrue();
+    verify(userRepository, never()).existsById(1L);
+  }
+
+  @Test
+  void testRevokeUser_ShouldAcceptTokensIssuedAfter() {
+    // Arrange
+    when(userRepository.existsById(1L)).thenReturn(true);
+    tokenRevocationService.revokeUser(1L);
+    Date issuedAfter = new Date(System.currentTimeMillis() + 1000);
+
+    // Act & Assert
+    assertThat(tokenRevocationService.isRevoked(1L, issuedAfter)).isFalse();
+  }
+
+  @Test
+  void testIsRevoked_MoreUsersThanCacheSize_ShouldStayBounded() {
+    // Arrange
+    when(userRepository.existsById(anyLong())).thenReturn(true);
+    Date issuedAt = new Date();
+
+    // Act
+    for (long userId = 1; userId <= 100; userId++) {
+      tokenRevocationService.isRevoked(userId, issuedAt);
+    }
+
+    // Assert
+    assertThat(tokenRevocationService.verifiedUserCount())
+      .isLessThanOrEqualTo(2);
+  }
+}
@@ -0,0 +1,76 @@
+package com.openclassrooms.starterjwt.unit.security.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.openclassrooms.starterjwt.exception.ServiceUnavailableException;
+import com.openclassrooms.starterjwt.security.services.PasswordHashingPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class PasswordHashingPoolTest {
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private final PasswordHashingPool pool = new PasswordHashingPool(1, 1);
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    pool.shutdown();
+  }
+
+  @Test
+  void testSubmit_ShouldRunTaskOffTheCallingThread() {
+    // Act
+    String threadName = pool
+      .submit(() -> Thread.currentThread().getName())
+      .join();
+
+    // Assert
+    assertThat(threadName)
+      .startsWith("password-hash-")
+      .isNotEqualTo(Thread.currentThread().getName());
+  }
+
+  @Test
+  void testSubmit_QueueFull_ShouldRejectWithServiceUnavailable() {
+    // Arrange
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    pool.bindTo(registry);
+    CompletableFuture<String> running = pool.submit(this::blockUntilReleased);
+    CompletableFuture<String> queued = pool.submit(() -> "queued");
+
+    // Act & Assert
+    assertThatThrownBy(() -> pool.submit(() -> "rejected"))
+      .isInstanceOf(ServiceUnavailableException.class);
+    assertThat(
+      registry
+        .get("executor.queued")
+        .tag("name", "passwordHashing")
+        .gauge()
+        .value()
+    )
+      .isEqualTo(1.0);
+    assertThat(
+      registry.get("password.hashing.rejected").functionCounter().count()
+    )
+      .isEqualTo(1.0);
+
+    release.countDown();
+    assertThat(running.join()).isEqualTo("released");
+    assertThat(queued.join()).isEqualTo("queued");
+  }
+
+  private String blockUntilReleased() {
+    try {
+      release.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return "released";
+  }
+}
@@ -0,0 +1,88 @@
+package com.openclassrooms.starterjwt.unit.security.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.openclassrooms.starterjwt.security.services.UserDetailsCache;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class UserDetailsCacheTest {
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  private final Function<String, UserDetailsImpl> loader = email -> {
+    loads.incrementAndGet();
+    return UserDetailsImpl.builder().id(1L).username(email).build();
+  };
+
+  @Test
+  void testGet_LoadsOnceThenHits() {
+    // Arrange
+    UserDetailsCache cache = new UserDetailsCache(10, 300);
+
+    // Act
+    UserDetailsImpl first = cache.get("user@test.com", loader);
+    UserDetailsImpl second = cache.get("user@test.com", loader);
+
+    // Assert
+    assertThat(second).isSameAs(first);
+    assertThat(loads.get()).isEqualTo(1);
+    assertThat(cache.stats().hitCount()).isEqualTo(1);
+    assertThat(cache.stats().missCount()).isEqualTo(1);
+  }
+
+  @Test
+  void testInvalidate_ForcesReload() {
+    // Arrange
+    UserDetailsCache cache = new UserDetailsCache(10, 300);
+    cache.get("user@test.com", loader);
+
+    // Act
+    cache.invalidate("user@test.com");
+    cache.get("user@test.com", loader);
+
+    // Assert
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  void testMaxSize_EvictsEntries() {
+    // Arrange
+    UserDetailsCache cache = new UserDetailsCache(1, 300);
+
+    // Act
+    cache.get("first@test.com", loader);
+    cache.get("second@test.com", loader);
+    cache.cleanUp();
+
+    // Assert
+    assertThat(cache.stats().evictionCount()).isEqualTo(1);
+  }
+
+  @Test
+  void testBindTo_ExposesCacheMetrics() {
+    // Arrange
+    UserDetailsCache cache = new UserDetailsCache(10, 300);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    cache.get("user@test.com", loader);
+    cache.get("user@test.com", loader);
+
+    // Act
+    cache.bindTo(registry);
+
+    // Assert
+    assertThat(
+      registry
+        .get("cache.gets")
+        .tag("cache", "userDetails")
+        .tag("result", "hit")
+        .functionCounter()
+        .count()
+    )
+      .isEqualTo(1.0);
+    assertThat(registry.get("cache.evictions").functionCounter()).isNotNull();
+  }
+}
@@ -2,17 +2,22 @@ package com.openclassrooms.starterjwt.unit.security.services;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCache;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -23,9 +28,19 @@ class UserDetailsServiceImplTest {
   @Mock
   private UserRepository userRepository;
 
-  @InjectMocks
+  @Spy
+  private UserDetailsCache userDetailsCache = new UserDetailsCache(100, 300);
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
   private UserDetailsServiceImpl userDetailsService;
 
+  @BeforeEach
+  void setUp() {
+    userDetailsService =
+      new UserDetailsServiceImpl(userRepository, userDetailsCache, registry);
+  }
+
   @Test
   void testLoadUserByUsername() {
     // Arrange
@@ -36,6 +51,7 @@ class UserDetailsServiceImplTest {
     user.setFirstName("firstname");
     user.setLastName("lastname");
     user.setPassword("password");
+    user.setAdmin(true);
 
     when(userRepository.findByEmail(username)).thenReturn(Optional.of(user));
 
@@ -50,6 +66,7 @@ class UserDetailsServiceImplTest {
     assertThat(userDetailsImpl.getFirstName()).isEqualTo(user.getFirstName());
     assertThat(userDetailsImpl.getLastName()).isEqualTo(user.getLastName());
     assertThat(userDetailsImpl.getPassword()).isEqualTo(user.getPassword());
+    assertThat(userDetailsImpl.getAdmin()).isTrue();
   }
 
   @Test
@@ -64,4 +81,64 @@ class UserDetailsServiceImplTest {
       .isInstanceOf(UsernameNotFoundException.class)
       .hasMessage("User Not Found with email: " + username);
   }
+
+  @Test
+  void testLoadUserByUsername_ServedFromCacheOnSecondCall() {
+    // Arrange
+    String username = "cached@test.com";
+    User user = new User();
+    user.setId(2L);
+    user.setEmail(username);
+    user.setFirstName("firstname");
+    user.setLastName("lastname");
+    user.setPassword("password");
+
+    when(userRepository.findByEmail(username)).thenReturn(Optional.of(user));
+
+    // Act
+    UserDetails first = userDetailsService.loadUserByUsername(username);
+    UserDetails second = userDetailsService.loadUserByUsername(username);
+
+    // Assert
+    assertThat(second).isSameAs(first);
+    verify(userRepository, times(1)).findByEmail(username);
+    assertThat(userDetailsCache.stats().hitCount()).isEqualTo(1);
+    assertThat(userDetailsCache.stats().missCount()).isEqualTo(1);
+  }
+
+  @Test
+  void testLoadUserByUsername_UserNotFoundIsNotCached() {
+    // Arrange
+    String username = "missing@test.com";
+
+    when(userRepository.findByEmail(username)).thenReturn(Optional.empty());
+
+    // Act
+    assertThatThrownBy(() -> userDetailsService.loadUserByUsername(username))
+      .isInstanceOf(UsernameNotFoundException.class);
+    assertThatThrownBy(() -> userDetailsService.loadUserByUsername(username))
+      .isInstanceOf(UsernameNotFoundException.class);
+
+    // Assert
+    verify(userRepository, times(2)).findByEmail(username);
+  }
+
+  @Test
+  void testLoadUserByUsername_ShouldRecordLoadTime() {
+    // Arrange
+    String username = "timed@test.com";
+    User user = new User();
+    user.setId(3L);
+    user.setEmail(username);
+    user.setPassword("password");
+
+    when(userRepository.findByEmail(username)).thenReturn(Optional.of(user));
+
+    // Act
+    userDetailsService.loadUserByUsername(username);
+
+    // Assert
+    assertThat(registry.get("security.user.details.load").timer().count())
+      .isEqualTo(1);
+  }
 }
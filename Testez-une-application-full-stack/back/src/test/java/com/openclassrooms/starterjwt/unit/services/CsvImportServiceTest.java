@@ -0,0 +1,317 @@
+package com.openclassrooms.starterjwt.unit.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.response.ImportReport;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.PasswordHashingPool;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCache;
+import com.openclassrooms.starterjwt.services.CsvImportService;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import javax.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@ExtendWith(MockitoExtension.class)
+class CsvImportServiceTest {
+
+  private static final String USER_HEADER =
+    "email,first_name,last_name,password\n";
+
+  private static final String SESSION_HEADER =
+    "name,date,description,teacher_id,capacity\n";
+
+  @Mock
+  private UserRepository userRepository;
+
+  @Mock
+  private SessionRepository sessionRepository;
+
+  @Mock
+  private TeacherRepository teacherRepository;
+
+  @Mock
+  private PasswordEncoder passwordEncoder;
+
+  @Mock
+  private UserDetailsCache userDetailsCache;
+
+  private final PasswordHashingPool passwordHashingPool =
+    new PasswordHashingPool(2, 1);
+
+  private CsvImportService csvImportService;
+
+  @BeforeEach
+  void setUp() {
+    csvImportService =
+      new CsvImportService(
+        userRepository,
+        sessionRepository,
+        teacherRepository,
+        passwordEncoder,
+        Validation.buildDefaultValidatorFactory().getValidator(),
+        userDetailsCache,
+        passwordHashingPool
+      );
+  }
+
+  @AfterEach
+  void tearDown() {
+    passwordHashingPool.shutdown();
+  }
+
+  @Test
+  void importUsers_ValidRows_ShouldHashAndInsertInOneBatch()
+    throws Exception {
+    // Arrange
+    when(userRepository.findExistingEmails(anyCollection()))
+      .thenReturn(Collections.emptyList());
+    when(passwordEncoder.encode(anyString())).thenReturn("hash");
+
+    // Act
+    ImportReport report = csvImportService.importUsers(
+      csv(
+        USER_HEADER +
+        "john@test.com,John,Doe,secret1\n" +
+        "jane@test.com,Jane,\"Doe, Jr\",secret2\n"
+      )
+    );
+
+    // Assert
+    assertThat(report.getRows()).isEqualTo(2);
+    assertThat(report.getImported()).isEqualTo(2);
+    assertThat(report.getErrors()).isEmpty();
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<User>> saved = ArgumentCaptor.forClass(List.class);
+    verify(userRepository).saveAll(saved.capture());
+    assertThat(saved.getValue())
+      .extracting(User::getEmail, User::getLastName, User::getPassword)
+      .containsExactly(
+        tuple("john@test.com", "Doe", "hash"),
+        tuple("jane@test.com", "Doe, Jr", "hash")
+      );
+    verify(userDetailsCache).invalidate("john@test.com");
+    verify(userDetailsCache).invalidate("jane@test.com");
+  }
+
+  @Test
+  void importUsers_InvalidAndDuplicateRows_ShouldReportThemByLine()
+    throws Exception {
+    // Arrange
+    when(userRepository.findExistingEmails(anyCollection()))
+      .thenReturn(Collections.singletonList("TAKEN@test.com"));
+    when(passwordEncoder.encode(anyString())).thenReturn("hash");
+
+    // Act
+    ImportReport report = csvImportService.importUsers(
+      csv(
+        USER_HEADER +
+        "john@test.com,John,Doe,secret1\n" +
+        "not-an-email,Jane,Doe,secret2\n" +
+        "JOHN@test.com,John,Doe,secret3\n" +
+        "taken@test.com,Paul,Doe,secret4\n"
+      )
+    );
+
+    // Assert
+    assertThat(report.getRows()).isEqualTo(4);
+    assertThat(report.getImported()).isEqualTo(1);
+    assertThat(report.getErrors())
+      .extracting(ImportReport.RowError::getLine)
+      .containsExactly(3L, 4L, 5L);
+    assertThat(report.getErrors().get(1).getMessage())
+      .isEqualTo("Duplicate email in file");
+    assertThat(report.getErrors().get(2).getMessage())
+      .isEqualTo("Email is already registered");
+    verify(passwordEncoder, times(1)).encode(anyString());
+  }
+
+  @Test
+  void importUsers_EmailRegisteredConcurrently_ShouldRetryRowByRow()
+    throws Exception {
+    // Arrange
+    when(userRepository.findExistingEmails(anyCollection()))
+      .thenReturn(Collections.emptyList());
+    when(passwordEncoder.encode(anyString())).thenReturn("hash");
+    when(userRepository.saveAll(anyList()))
+      .thenThrow(new DataIntegrityViolationException("UK_USERS_EMAIL"));
+    when(userRepository.save(any(User.class)))
+      .thenThrow(new DataIntegrityViolationException("UK_USERS_EMAIL"))
+      .thenAnswer(invocation -> invocation.getArgument(0));
+
+    // Act
+    ImportReport report = csvImportService.importUsers(
+      csv(
+        USER_HEADER +
+        "john@test.com,John,Doe,secret1\n" +
+        "jane@test.com,Jane,Doe,secret2\n"
+      )
+    );
+
+    // Assert
+    assertThat(report.getImported()).isEqualTo(1);
+    assertThat(report.getErrors())
+      .extracting(
+        ImportReport.RowError::getLine,
+        ImportReport.RowError::getMessage
+      )
+      .containsExactly(tuple(2L, "Email is already registered"));
+    verify(userRepository, times(2)).save(any(User.class));
+    verify(userDetailsCache, never()).invalidate("john@test.com");
+    verify(userDetailsCache).invalidate("jane@test.com");
+  }
+
+  @Test
+  void importUsers_MoreRowsThanPoolQueue_ShouldHashEveryRow()
+    throws Exception {
+    // Arrange
+    when(userRepository.findExistingEmails(anyCollection()))
+      .thenReturn(Collections.emptyList());
+    when(passwordEncoder.encode(anyString())).thenReturn("hash");
+    StringBuilder content = new StringBuilder(USER_HEADER);
+    for (int i = 0; i < 20; i++) {
+      content.append("user").append(i).append("@test.com,John,Doe,secret\n");
+    }
+
+    // Act
+    ImportReport report = csvImportService.importUsers(
+      csv(content.toString())
+    );
+
+    // Assert
+    assertThat(report.getImported()).isEqualTo(20);
+    assertThat(report.getErrors()).isEmpty();
+    verify(passwordEncoder, times(20)).encode("secret");
+  }
+
+  @Test
+  void importUsers_MissingColumns_ShouldThrowBadRequest() {
+    // Act & Assert
+    assertThatThrownBy(() ->
+        csvImportService.importUsers(csv("email,password\n"))
+      )
+      .isInstanceOf(BadRequestException.class);
+    verifyNoInteractions(userRepository);
+  }
+
+  @Test
+  void importSessions_ValidRows_ShouldInsertKnownTeachersOnly()
+    throws Exception {
+    // Arrange
+    Teacher teacher = new Teacher().setId(1L);
+    when(teacherRepository.findAllById(anyCollection()))
+      .thenReturn(Collections.singletonList(teacher));
+
+    // Act
+    ImportReport report = csvImportService.importSessions(
+      csv(
+        SESSION_HEADER +
+        "Yoga,2024-01-01,\"Stretch, breathe\",1,20\n" +
+        "Pilates,2024-01-02T10:30,Core,1,\n" +
+        "Boxing,2024-01-03,Punch,9,10\n"
+      )
+    );
+
+    // Assert
+    assertThat(report.getRows()).isEqualTo(3);
+    assertThat(report.getImported()).isEqualTo(2);
+    assertThat(report.getErrors())
+      .extracting(
+        ImportReport.RowError::getLine,
+        ImportReport.RowError::getMessage
+      )
+      .containsExactly(tuple(4L, "Unknown teacher 9"));
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<Session>> saved = ArgumentCaptor.forClass(List.class);
+    verify(sessionRepository).saveAll(saved.capture());
+    assertThat(saved.getValue())
+      .extracting(
+        Session::getDescription,
+        Session::getTeacher,
+        Session::getCapacity
+      )
+      .containsExactly(
+        tuple("Stretch, breathe", teacher, 20),
+        tuple("Core", teacher, null)
+      );
+  }
+
+  @Test
+  void importSessions_InvalidRows_ShouldReportThemWithoutInserting()
+    throws Exception {
+    // Act
+    ImportReport report = csvImportService.importSessions(
+      csv(
+        SESSION_HEADER +
+        "Yoga,not-a-date,Stretch,1,20\n" +
+        "Yoga,2024-01-01,Stretch,one,20\n" +
+        "Yoga,2024-01-01,Stretch,1,0\n" +
+        "\"Yoga,2024-01-01,Stretch,1,20\n"
+      )
+    );
+
+    // Assert
+    assertThat(report.getRows()).isEqualTo(4);
+    assertThat(report.getImported()).isZero();
+    assertThat(report.getErrors())
+      .extracting(ImportReport.RowError::getMessage)
+      .containsExactly(
+        "date: expected yyyy-MM-dd or yyyy-MM-ddTHH:mm[:ss]",
+        "teacher_id: must be a number",
+        "capacity: must be a positive number",
+        "Unterminated quoted field"
+      );
+    verifyNoInteractions(teacherRepository, sessionRepository);
+  }
+
+  @Test
+  void importSessions_ManyInvalidRows_ShouldKeepFirstErrorsAndCountAll()
+    throws Exception {
+    // Arrange
+    StringBuilder content = new StringBuilder(SESSION_HEADER);
+    for (int i = 0; i < ImportReport.MAX_ERRORS + 50; i++) {
+      content.append("Yoga,not-a-date,Stretch,1,20\n");
+    }
+
+    // Act
+    ImportReport report = csvImportService.importSessions(
+      csv(content.toString())
+    );
+
+    // Assert
+    assertThat(report.getRows()).isEqualTo(ImportReport.MAX_ERRORS + 50);
+    assertThat(report.getErrorCount()).isEqualTo(ImportReport.MAX_ERRORS + 50);
+    assertThat(report.getErrors()).hasSize(ImportReport.MAX_ERRORS);
+    assertThat(report.getErrors().get(0).getLine()).isEqualTo(2L);
+  }
+
+  private static InputStream csv(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,190 @@
+package com.openclassrooms.starterjwt.unit.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.openclassrooms.starterjwt.services.SessionExportService;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+@ExtendWith(MockitoExtension.class)
+class SessionExportServiceTest {
+
+  private static final Timestamp DATE = Timestamp.from(
+    Instant.parse("2024-01-01T10:00:00Z")
+  );
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  @InjectMocks
+  private SessionExportService sessionExportService;
+
+  @Test
+  void writeNdjson_ShouldWriteOneLinePerSessionWithItsUsers()
+    throws Exception {
+    // Arrange
+    givenRows(
+      new Object[] { 1L, "Yoga", DATE, 1L, 2L },
+      new Object[] { 1L, "Yoga", DATE, 1L, 3L },
+      new Object[] { 2L, "Pilates", DATE, null, null }
+    );
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    // Act
+    sessionExportService.writeNdjson(out);
+
+    // Assert
+    assertThat(out.toString(StandardCharsets.UTF_8.name()))
+      .isEqualTo(
+        "{\"id\":1,\"name\":\"Yoga\",\"date\":\"2024-01-01T10:00:00Z\"," +
+        "\"teacher_id\":1,\"users\":[2,3]}\n" +
+        "{\"id\":2,\"name\":\"Pilates\",\"date\":\"2024-01-01T10:00:00Z\"," +
+        "\"teacher_id\":null,\"users\":[]}\n"
+      );
+  }
+
+  @Test
+  void writeNdjson_WithoutSessions_ShouldWriteNothing() throws Exception {
+    // Arrange
+    givenRows();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    // Act
+    sessionExportService.writeNdjson(out);
+
+    // Assert
+    assertThat(out.size()).isZero();
+  }
+
+  @Test
+  void writeCsv_ShouldWriteOneLinePerParticipationAndEscapeNames()
+    throws Exception {
+    // Arrange
+    givenRows(
+      new Object[] { 1L, "Yoga, \"calm\"", DATE, 1L, 2L },
+      new Object[] { 2L, "Pilates", DATE, 1L, null }
+    );
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    // Act
+    sessionExportService.writeCsv(out);
+
+    // Assert
+    assertThat(out.toString(StandardCharsets.UTF_8.name()))
+      .isEqualTo(
+        "session_id,session_name,session_date,teacher_id,user_id\n" +
+        "1,\"Yoga, \"\"calm\"\"\",2024-01-01T10:00:00Z,1,2\n" +
+        "2,Pilates,2024-01-01T10:00:00Z,1,\n"
+      );
+  }
+
+  @Test
+  void writeCsv_ShouldNeutraliseNamesStartingLikeFormulas() throws Exception {
+    // Arrange
+    givenRows(
+      new Object[] { 1L, "=HYPERLINK(\"http://x\")", DATE, 1L, 2L },
+      new Object[] { 2L, "+1", DATE, 1L, 2L },
+      new Object[] { 3L, "-1,5", DATE, 1L, 2L },
+      new Object[] { 4L, "@SUM(A1)", DATE, 1L, 2L },
+      new Object[] { 5L, "Yoga = calm", DATE, 1L, 2L }
+    );
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    // Act
+    sessionExportService.writeCsv(out);
+
+    // Assert
+    assertThat(out.toString(StandardCharsets.UTF_8.name()))
+      .isEqualTo(
+        "session_id,session_name,session_date,teacher_id,user_id\n" +
+        "1,\"'=HYPERLINK(\"\"http://x\"\")\",2024-01-01T10:00:00Z,1,2\n" +
+        "2,'+1,2024-01-01T10:00:00Z,1,2\n" +
+        "3,\"'-1,5\",2024-01-01T10:00:00Z,1,2\n" +
+        "4,'@SUM(A1),2024-01-01T10:00:00Z,1,2\n" +
+        "5,Yoga = calm,2024-01-01T10:00:00Z,1,2\n"
+      );
+  }
+
+  @Test
+  void writeCsv_ShouldStreamForwardOnlyResultSet() throws Exception {
+    // Arrange
+    givenRows();
+    Connection connection = mock(Connection.class);
+    PreparedStatement statement = mock(PreparedStatement.class);
+    when(
+      connection.prepareStatement(
+        anyString(),
+        eq(ResultSet.TYPE_FORWARD_ONLY),
+        eq(ResultSet.CONCUR_READ_ONLY)
+      )
+    )
+      .thenReturn(statement);
+
+    // Act
+    sessionExportService.writeCsv(new ByteArrayOutputStream());
+
+    // Assert
+    ArgumentCaptor<PreparedStatementCreator> creator = ArgumentCaptor.forClass(
+      PreparedStatementCreator.class
+    );
+    verify(jdbcTemplate)
+      .query(creator.capture(), any(RowCallbackHandler.class));
+    creator.getValue().createPreparedStatement(connection);
+    verify(statement).setFetchSize(Integer.MIN_VALUE);
+  }
+
+  private void givenRows(Object[]... rows) throws SQLException {
+    ResultSet rs = mock(ResultSet.class, withSettings().lenient());
+    int[] row = { -1 };
+    Object[] last = { null };
+    when(rs.getLong(anyInt()))
+      .thenAnswer(invocation -> {
+        last[0] = rows[row[0]][invocation.<Integer>getArgument(0) - 1];
+        return last[0] == null ? 0L : (Long) last[0];
+      });
+    when(rs.getString(anyInt()))
+      .thenAnswer(invocation -> {
+        last[0] = rows[row[0]][invocation.<Integer>getArgument(0) - 1];
+        return last[0];
+      });
+    when(rs.getTimestamp(anyInt()))
+      .thenAnswer(invocation -> {
+        last[0] = rows[row[0]][invocation.<Integer>getArgument(0) - 1];
+        return last[0];
+      });
+    when(rs.wasNull()).thenAnswer(invocation -> last[0] == null);
+
+    doAnswer(invocation -> {
+        RowCallbackHandler handler = invocation.getArgument(1);
+        for (row[0] = 0; row[0] < rows.length; row[0]++) {
+          handler.processRow(rs);
+        }
+        return null;
+      })
+      .when(jdbcTemplate)
+      .query(
+        any(PreparedStatementCreator.class),
+        any(RowCallbackHandler.class)
+      );
+  }
+}
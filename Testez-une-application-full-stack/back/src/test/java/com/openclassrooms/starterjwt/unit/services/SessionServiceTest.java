@@ -2,26 +2,50 @@ package com.openclassrooms.starterjwt.unit.services;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.Mockito.*;
 
 import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.models.ParticipationId;
+import com.openclassrooms.starterjwt.models.ParticipationOutcome;
+import com.openclassrooms.starterjwt.models.ParticipationStatus;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.pagination.KeysetCursor;
+import com.openclassrooms.starterjwt.pagination.KeysetPage;
+import com.openclassrooms.starterjwt.payload.request.RecurrenceRequest;
+import com.openclassrooms.starterjwt.repository.ParticipationRepository;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import com.openclassrooms.starterjwt.repository.projection.CollectionVersion;
+import com.openclassrooms.starterjwt.repository.projection.SeatAvailability;
+import com.openclassrooms.starterjwt.repository.projection.SessionBrief;
+import com.openclassrooms.starterjwt.repository.projection.SessionSummary;
 import com.openclassrooms.starterjwt.services.SessionService;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @SpringBootTest
 public class SessionServiceTest {
@@ -35,6 +59,15 @@ public class SessionServiceTest {
   @Mock
   private UserRepository userRepository;
 
+  @Mock
+  private ParticipationRepository participationRepository;
+
+  @Mock
+  private WaitlistRepository waitlistRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
   private Long testSessionId = 1L;
   private Long testUserId = 1L;
   private LocalDateTime fixedDateTime = LocalDateTime.of(2024, 1, 1, 1, 1, 1);
@@ -95,6 +128,33 @@ public class SessionServiceTest {
     // Assert
     verify(sessionRepository).save(sessionToCreateUnderTest);
     assertThat(createdSession).isEqualTo(sessionToCreateUnderTest);
+    assertThat(createdSession.getSeatsTaken()).isZero();
+  }
+
+  @Test
+  public void testCreateSession_MoreParticipantsThanCapacity_ShouldThrowBadRequest() {
+    // Arrange
+    testSession.setCapacity(1);
+    testSession.setUsers(Arrays.asList(new User(), new User()));
+
+    // Act and Assert
+    assertThatExceptionOfType(BadRequestException.class)
+      .isThrownBy(() -> sessionService.create(testSession));
+    verify(sessionRepository, never()).save(any());
+  }
+
+  @Test
+  public void testCreateSession_ParticipantsFillingCapacity_ShouldCountSeats() {
+    // Arrange
+    testSession.setCapacity(2);
+    testSession.setUsers(Arrays.asList(new User(), new User()));
+    when(sessionRepository.save(testSession)).thenReturn(testSession);
+
+    // Act
+    Session createdSession = sessionService.create(testSession);
+
+    // Assert
+    assertThat(createdSession.getSeatsTaken()).isEqualTo(2);
   }
 
   @Test
@@ -122,6 +182,252 @@ public class SessionServiceTest {
     assertThat(retrievedSessions).isEqualTo(sessionsListUnderTest);
   }
 
+  @Test
+  public void testFindSessionPage_FirstPage_ShouldReturnNextCursor() {
+    // Arrange
+    SessionSummary firstSummary = mockSummary(testSessionId);
+    SessionSummary nextSummary = mock(SessionSummary.class);
+    List<SessionSummary> rows = new ArrayList<SessionSummary>();
+    rows.add(firstSummary);
+    rows.add(nextSummary);
+    when(sessionRepository.findFirstPage(PageRequest.of(0, 2)))
+      .thenReturn(rows);
+
+    // Act
+    KeysetPage<SessionSummary> page = sessionService.findPage(null, 1);
+
+    // Assert
+    assertThat(page.getItems()).containsExactly(firstSummary);
+    assertThat(KeysetCursor.decode(page.getNextCursor()))
+      .isEqualTo(KeysetCursor.of(fixedDate, testSessionId));
+    verify(sessionRepository, never()).findAll();
+  }
+
+  @Test
+  public void testFindSessionPage_WithCursor_ShouldSeekAfterCursor() {
+    // Arrange
+    String cursor = KeysetCursor.of(fixedDate, testSessionId).encode();
+    SessionSummary summary = mock(SessionSummary.class);
+    List<SessionSummary> rows = new ArrayList<SessionSummary>();
+    rows.add(summary);
+    when(
+      sessionRepository.findPageAfter(
+        fixedDate,
+        testSessionId,
+        PageRequest.of(0, KeysetPage.DEFAULT_SIZE + 1)
+      )
+    )
+      .thenReturn(rows);
+
+    // Act
+    KeysetPage<SessionSummary> page = sessionService.findPage(cursor, null);
+
+    // Assert
+    assertThat(page.getItems()).containsExactly(summary);
+    assertThat(page.getNextCursor()).isNull();
+  }
+
+  @Test
+  public void testFindSessionPage_WithInvalidCursor_ShouldThrowBadRequest() {
+    // Act and Assert
+    assertThatExceptionOfType(BadRequestException.class)
+      .isThrownBy(() -> sessionService.findPage("invalid", 10));
+  }
+
+  @Test
+  public void testFindSessionRange_FirstPage_ShouldSeekFromWindowStart() {
+    // Arrange
+    Date from = new Date(1704067200000L);
+    Date to = new Date(1704672000000L);
+    SessionSummary summary = mock(SessionSummary.class);
+    List<SessionSummary> rows = new ArrayList<SessionSummary>();
+    rows.add(summary);
+    when(
+      sessionRepository.findRangePage(
+        from,
+        to,
+        3L,
+        from,
+        0L,
+        PageRequest.of(0, 11)
+      )
+    )
+      .thenReturn(rows);
+
+    // Act
+    KeysetPage<SessionSummary> page = sessionService.findRange(
+      from,
+      to,
+      3L,
+      null,
+      10
+    );
+
+    // Assert
+    assertThat(page.getItems()).containsExactly(summary);
+    assertThat(page.getNextCursor()).isNull();
+    verify(sessionRepository, never()).findAll();
+  }
+
+  @Test
+  public void testFindSessionRange_WithCursor_ShouldSeekAfterCursor() {
+    // Arrange
+    Date from = new Date(1704067200000L);
+    Date to = new Date(1704672000000L);
+    String cursor = KeysetCursor.of(fixedDate, testSessionId).encode();
+    when(
+      sessionRepository.findRangePage(
+        from,
+        to,
+        null,
+        fixedDate,
+        testSessionId,
+        PageRequest.of(0, KeysetPage.DEFAULT_SIZE + 1)
+      )
+    )
+      .thenReturn(new ArrayList<SessionSummary>());
+
+    // Act
+    KeysetPage<SessionSummary> page = sessionService.findRange(
+      from,
+      to,
+      null,
+      cursor,
+      null
+    );
+
+    // Assert
+    assertThat(page.getItems()).isEmpty();
+  }
+
+  @Test
+  public void testFindSessionRange_WithEmptyWindow_ShouldThrowBadRequest() {
+    // Arrange
+    Date from = new Date(1704672000000L);
+    Date to = new Date(1704067200000L);
+
+    // Act and Assert
+    assertThatExceptionOfType(BadRequestException.class)
+      .isThrownBy(() -> sessionService.findRange(from, to, null, null, null));
+    assertThatExceptionOfType(BadRequestException.class)
+      .isThrownBy(() -> sessionService.findRange(from, from, null, null, null));
+  }
+
+  @Test
+  public void testFindSessionPageForUser_FirstPage_ShouldQueryByUserId() {
+    // Arrange
+    Long userId = 7L;
+    SessionBrief firstBrief = mock(SessionBrief.class);
+    when(firstBrief.getId()).thenReturn(testSessionId);
+    when(firstBrief.getDate()).thenReturn(fixedDate);
+    SessionBrief nextBrief = mock(SessionBrief.class);
+    List<SessionBrief> rows = new ArrayList<SessionBrief>();
+    rows.add(firstBrief);
+    rows.add(nextBrief);
+    when(
+      participationRepository.findFirstPageByUserId(
+        userId,
+        PageRequest.of(0, 2)
+      )
+    )
+      .thenReturn(rows);
+
+    // Act
+    KeysetPage<SessionBrief> page = sessionService.findPageForUser(
+      userId,
+      null,
+      1
+    );
+
+    // Assert
+    assertThat(page.getItems()).containsExactly(firstBrief);
+    assertThat(KeysetCursor.decode(page.getNextCursor()))
+      .isEqualTo(KeysetCursor.of(fixedDate, testSessionId));
+  }
+
+  @Test
+  public void testFindSessionPageForUser_WithCursor_ShouldSeekAfterCursor() {
+    // Arrange
+    Long userId = 7L;
+    String cursor = KeysetCursor.of(fixedDate, testSessionId).encode();
+    SessionBrief brief = mock(SessionBrief.class);
+    List<SessionBrief> rows = new ArrayList<SessionBrief>();
+    rows.add(brief);
+    when(
+      participationRepository.findPageByUserIdAfter(
+        userId,
+        fixedDate,
+        testSessionId,
+        PageRequest.of(0, KeysetPage.DEFAULT_SIZE + 1)
+      )
+    )
+      .thenReturn(rows);
+
+    // Act
+    KeysetPage<SessionBrief> page = sessionService.findPageForUser(
+      userId,
+      cursor,
+      null
+    );
+
+    // Assert
+    assertThat(page.getItems()).containsExactly(brief);
+    assertThat(page.getNextCursor()).isNull();
+  }
+
+  @Test
+  public void testFindParticipantIds() {
+    // Arrange
+    List<Long> userIds = Arrays.asList(2L, 3L);
+    when(participationRepository.findUserIdsBySessionId(testSessionId))
+      .thenReturn(userIds);
+
+    // Act
+    List<Long> retrievedUserIds = sessionService.findParticipantIds(
+      testSessionId
+    );
+
+    // Assert
+    assertThat(retrievedUserIds).containsExactly(2L, 3L);
+    verify(sessionRepository, never()).findById(anyLong());
+  }
+
+  @Test
+  public void testFindParticipantIds_ForSessionList_ShouldGroupBySession() {
+    // Arrange
+    Session otherSession = new Session();
+    otherSession.setId(2L);
+    List<Object[]> rows = new ArrayList<Object[]>();
+    rows.add(new Object[] { 1L, 10L });
+    rows.add(new Object[] { 1L, 11L });
+    rows.add(new Object[] { 2L, 10L });
+    when(
+      participationRepository.findIdPairsBySessionIdIn(Arrays.asList(1L, 2L))
+    )
+      .thenReturn(rows);
+
+    // Act
+    Map<Long, List<Long>> userIdsBySession = sessionService.findParticipantIds(
+      Arrays.asList(testSession, otherSession)
+    );
+
+    // Assert
+    assertThat(userIdsBySession.get(1L)).containsExactly(10L, 11L);
+    assertThat(userIdsBySession.get(2L)).containsExactly(10L);
+  }
+
+  @Test
+  public void testFindParticipantIds_ForEmptySessionList_ShouldNotQuery() {
+    // Act
+    Map<Long, List<Long>> userIdsBySession = sessionService.findParticipantIds(
+      new ArrayList<Session>()
+    );
+
+    // Assert
+    assertThat(userIdsBySession).isEmpty();
+    verify(participationRepository, never()).findIdPairsBySessionIdIn(any());
+  }
+
   @Test
   public void testGetSessionById() {
     // Arrange
@@ -159,8 +465,19 @@ public class SessionServiceTest {
     Long testSessionIdUnderTest = testSessionId + 1;
     Session updatedSessionUnderTest = testSession;
 
+    Session storedSession = new Session()
+      .setId(testSessionIdUnderTest)
+      .setVersion(5L)
+      .setSeatsTaken(3);
+
+    when(sessionRepository.findVersionById(testSessionIdUnderTest))
+      .thenReturn(Optional.of(4L));
     when(sessionRepository.save(updatedSessionUnderTest))
       .thenReturn(updatedSessionUnderTest);
+    when(sessionRepository.syncSeatsTaken(testSessionIdUnderTest))
+      .thenReturn(1);
+    when(sessionRepository.findById(testSessionIdUnderTest))
+      .thenReturn(Optional.of(storedSession));
 
     // Act
     Session result = sessionService.update(
@@ -170,8 +487,122 @@ public class SessionServiceTest {
 
     // Assert
     verify(sessionRepository).save(updatedSessionUnderTest);
-    assertThat(result).isEqualTo(updatedSessionUnderTest);
-    assertThat(result.getId()).isEqualTo(testSessionId + 1);
+    assertThat(updatedSessionUnderTest.getId()).isEqualTo(testSessionId + 1);
+    assertThat(updatedSessionUnderTest.getVersion()).isEqualTo(4L);
+    verify(sessionRepository).syncSeatsTaken(testSessionIdUnderTest);
+    assertThat(result).isSameAs(storedSession);
+    assertThat(result.getSeatsTaken()).isEqualTo(3);
+  }
+
+  @Test
+  public void testUpdateSession_WithFreeSeats_ShouldPromoteWaitlist() {
+    // Arrange
+    WaitlistEntry waiting = new WaitlistEntry(10L, testSessionId, 5L, null);
+    when(sessionRepository.findVersionById(testSessionId))
+      .thenReturn(Optional.of(1L));
+    when(sessionRepository.save(testSession)).thenReturn(testSession);
+    when(sessionRepository.syncSeatsTaken(testSessionId)).thenReturn(1);
+    when(sessionRepository.findById(testSessionId))
+      .thenReturn(Optional.of(testSession));
+    when(
+      waitlistRepository.findBySessionIdOrderByIdAsc(eq(testSessionId), any())
+    )
+      .thenReturn(Collections.singletonList(waiting));
+    when(sessionRepository.reserveSeat(testSessionId)).thenReturn(1);
+    when(waitlistRepository.deleteEntry(10L)).thenReturn(1);
+    when(participationRepository.insertIfAbsent(testSessionId, 5L))
+      .thenReturn(1);
+
+    // Act
+    sessionService.update(testSessionId, testSession);
+
+    // Assert
+    verify(participationRepository).insertIfAbsent(testSessionId, 5L);
+    verify(sessionRepository, never()).releaseSeat(anyLong());
+  }
+
+  @Test
+  public void testUpdateSession_MoreParticipantsThanCapacity_ShouldThrowBadRequest() {
+    // Arrange
+    testSession.setCapacity(1);
+    when(sessionRepository.findVersionById(testSessionId))
+      .thenReturn(Optional.of(1L));
+    when(sessionRepository.save(testSession)).thenReturn(testSession);
+    when(sessionRepository.syncSeatsTaken(testSessionId)).thenReturn(0);
+
+    // Act and Assert
+    assertThatExceptionOfType(BadRequestException.class)
+      .isThrownBy(() -> sessionService.update(testSessionId, testSession));
+    verify(sessionRepository, times(1)).save(testSession);
+    verify(waitlistRepository, never())
+      .findBySessionIdOrderByIdAsc(anyLong(), any());
+  }
+
+  @Test
+  public void testUpdateSession_StaleClientVersion_ShouldThrowConflict() {
+    // Arrange
+    testSession.setVersion(1L);
+    when(sessionRepository.save(testSession))
+      .thenThrow(
+        new ObjectOptimisticLockingFailureException(Session.class, testSessionId)
+      );
+
+    // Act and Assert
+    assertThatExceptionOfType(ConflictException.class)
+      .isThrownBy(() -> sessionService.update(testSessionId, testSession));
+    verify(sessionRepository, times(1)).save(testSession);
+    verify(sessionRepository, never()).findVersionById(anyLong());
+  }
+
+  @Test
+  public void testUpdateSession_ConcurrentWrite_ShouldRetryWithLatestVersion() {
+    // Arrange
+    when(sessionRepository.findVersionById(testSessionId))
+      .thenReturn(Optional.of(1L), Optional.of(2L));
+    when(sessionRepository.save(testSession))
+      .thenThrow(
+        new ObjectOptimisticLockingFailureException(Session.class, testSessionId)
+      )
+      .thenReturn(testSession);
+    when(sessionRepository.syncSeatsTaken(testSessionId)).thenReturn(1);
+    when(sessionRepository.findById(testSessionId))
+      .thenReturn(Optional.of(testSession));
+
+    // Act
+    Session result = sessionService.update(testSessionId, testSession);
+
+    // Assert
+    assertThat(result).isSameAs(testSession);
+    assertThat(testSession.getVersion()).isEqualTo(2L);
+    verify(sessionRepository, times(2)).save(testSession);
+  }
+
+  @Test
+  public void testUpdateSession_RetriesExhausted_ShouldThrowConflict() {
+    // Arrange
+    when(sessionRepository.findVersionById(testSessionId))
+      .thenReturn(Optional.of(1L));
+    when(sessionRepository.save(testSession))
+      .thenThrow(
+        new ObjectOptimisticLockingFailureException(Session.class, testSessionId)
+      );
+
+    // Act and Assert
+    assertThatExceptionOfType(ConflictException.class)
+      .isThrownBy(() -> sessionService.update(testSessionId, testSession));
+    verify(sessionRepository, times(3)).save(testSession);
+  }
+
+  @Test
+  public void testUpdateSession_SessionNotFound_ShouldThrowNotFound() {
+    // Arrange
+    when(sessionRepository.findVersionById(testSessionId))
+      .thenReturn(Optional.empty());
+
+    // Act and Assert
+    assertThatExceptionOfType(NotFoundException.class)
+      .isThrownBy(() -> sessionService.update(testSessionId, testSession));
+    verify(sessionRepository, never()).save(any());
   }
 
   @Test
@@ -179,22 +610,26 @@ public class SessionServiceTest {
     // Arrange
     Long testSessionIdUnderTest = testSessionId;
     Long userId = testUserId;
-
-    Session sessionUnderTest = testSession;
-    sessionUnderTest.setUsers(new ArrayList<User>());
-
-    User userUnderTest = testUser;
-    when(sessionRepository.findById(testSessionIdUnderTest))
-      .thenReturn(Optional.of(sessionUnderTest));
-    when(userRepository.findById(userId))
-      .thenReturn(Optional.of(userUnderTest));
+    when(sessionRepository.existsById(testSessionIdUnderTest)).thenReturn(true);
+    when(userRepository.existsById(userId)).thenReturn(true);
+    when(sessionRepository.reserveSeat(testSessionIdUnderTest)).thenReturn(1);
+    when(participationRepository.insertIfAbsent(testSessionIdUnderTest, userId))
+      .thenReturn(1);
 
     // Act
-    sessionService.participate(testSessionIdUnderTest, userId);
+    ParticipationStatus status = sessionService.participate(
+      testSessionIdUnderTest,
+      userId
+    );
 
     // Assert
-    verify(sessionRepository).save(sessionUnderTest);
-    assertThat(sessionUnderTest.getUsers()).contains(userUnderTest);
+    assertThat(status).isEqualTo(ParticipationStatus.PARTICIPATING);
+    verify(participationRepository)
+      .insertIfAbsent(testSessionIdUnderTest, userId);
+    verify(waitlistRepository)
+      .deleteBySessionIdAndUserId(testSessionIdUnderTest, userId);
+    verify(sessionRepository, never()).findById(anyLong());
+    verify(sessionRepository, never()).save(any());
   }
 
   @Test
@@ -202,16 +637,16 @@ public class SessionServiceTest {
     // Arrange
     Long testSessionIdUnderTest = testSessionId;
     Long userIdUnderTest = testUserId;
-    Session sessionUnderTest = testSession;
-    when(sessionRepository.findById(testSessionIdUnderTest))
-      .thenReturn(Optional.of(sessionUnderTest));
-    when(userRepository.findById(userIdUnderTest)).thenReturn(Optional.empty());
+    when(sessionRepository.existsById(testSessionIdUnderTest)).thenReturn(true);
+    when(userRepository.existsById(userIdUnderTest)).thenReturn(false);
 
     // Act and Assert
     assertThatExceptionOfType(NotFoundException.class)
       .isThrownBy(() ->
         sessionService.participate(testSessionIdUnderTest, userIdUnderTest)
       );
+    verify(participationRepository, never())
+      .insertIfAbsent(anyLong(), anyLong());
   }
 
   @Test
@@ -219,17 +654,16 @@ public class SessionServiceTest {
     // Arrange
     Long testSessionIdUnderTest = testSessionId;
     Long userIdUnderTest = testUserId;
-    User userUnderTest = testUser;
-    when(sessionRepository.findById(testSessionIdUnderTest))
-      .thenReturn(Optional.empty());
-    when(userRepository.findById(userIdUnderTest))
-      .thenReturn(Optional.of(userUnderTest));
+    when(sessionRepository.existsById(testSessionIdUnderTest))
+      .thenReturn(false);
 
     // Act and Assert
     assertThatExceptionOfType(NotFoundException.class)
       .isThrownBy(() ->
         sessionService.participate(testSessionIdUnderTest, userIdUnderTest)
       );
+    verify(participationRepository, never())
+      .insertIfAbsent(anyLong(), anyLong());
   }
 
   @Test
@@ -237,19 +671,366 @@ public class SessionServiceTest {
     // Arrange
     Long testSessionIdUnderTest = testSessionId;
     Long userIdUnderTest = testUserId;
-    Session sessionUnderTest = testSession;
-    User userUnderTest = testUser;
-    sessionUnderTest.getUsers().add(userUnderTest);
-    when(sessionRepository.findById(testSessionIdUnderTest))
-      .thenReturn(Optional.of(sessionUnderTest));
-    when(userRepository.findById(userIdUnderTest))
-      .thenReturn(Optional.of(userUnderTest));
+    when(sessionRepository.existsById(testSessionIdUnderTest)).thenReturn(true);
+    when(userRepository.existsById(userIdUnderTest)).thenReturn(true);
+    when(
+      participationRepository.existsById(
+        new ParticipationId(testSessionIdUnderTest, userIdUnderTest)
+      )
+    )
+      .thenReturn(true);
 
     // Act and Assert
     assertThatExceptionOfType(BadRequestException.class)
       .isThrownBy(() ->
         sessionService.participate(testSessionIdUnderTest, userIdUnderTest)
       );
+    verify(sessionRepository, never()).reserveSeat(anyLong());
+  }
+
+  @Test
+  public void testParticipateInSession_ConcurrentDuplicate_ShouldThrowBadRequest() {
+    // Arrange
+    when(sessionRepository.existsById(testSessionId)).thenReturn(true);
+    when(userRepository.existsById(testUserId)).thenReturn(true);
+    when(sessionRepository.reserveSeat(testSessionId)).thenReturn(1);
+    when(participationRepository.insertIfAbsent(testSessionId, testUserId))
+      .thenReturn(0);
+
+    // Act and Assert
+    assertThatExceptionOfType(BadRequestException.class)
+      .isThrownBy(() -> sessionService.participate(testSessionId, testUserId));
+  }
+
+  @Test
+  public void testParticipateInSession_SessionFull_ShouldJoinWaitlist() {
+    // Arrange
+    when(sessionRepository.existsById(testSessionId)).thenReturn(true);
+    when(userRepository.existsById(testUserId)).thenReturn(true);
+    when(sessionRepository.reserveSeat(testSessionId)).thenReturn(0);
+    when(waitlistRepository.insertIfAbsent(testSessionId, testUserId))
+      .thenReturn(1);
+
+    // Act
+    ParticipationStatus status = sessionService.participate(
+      testSessionId,
+      testUserId
+    );
+
+    // Assert
+    assertThat(status).isEqualTo(ParticipationStatus.WAITLISTED);
+    verify(participationRepository, never())
+      .insertIfAbsent(anyLong(), anyLong());
+  }
+
+  @Test
+  public void testParticipateInSession_AlreadyWaitlisted_ShouldThrowBadRequest() {
+    // Arrange
+    when(sessionRepository.existsById(testSessionId)).thenReturn(true);
+    when(userRepository.existsById(testUserId)).thenReturn(true);
+    when(sessionRepository.reserveSeat(testSessionId)).thenReturn(0);
+    when(waitlistRepository.insertIfAbsent(testSessionId, testUserId))
+      .thenReturn(0);
+
+    // Act and Assert
+    assertThatExceptionOfType(BadRequestException.class)
+      .isThrownBy(() -> sessionService.participate(testSessionId, testUserId));
+  }
+
+  @Test
+  public void testGetEtag_SessionExists_ShouldEncodeIdAndVersion() {
+    // Arrange
+    when(sessionRepository.findVersionById(testSessionId))
+      .thenReturn(Optional.of(7L));
+
+    // Act
+    String etag = sessionService.getEtag(testSessionId);
+
+    // Assert
+    assertThat(etag).isEqualTo("\"" + testSessionId + "-7\"");
+  }
+
+  @Test
+  public void testGetEtag_SessionDoesNotExist_ShouldReturnNull() {
+    // Arrange
+    when(sessionRepository.findVersionById(testSessionId))
+      .thenReturn(Optional.empty());
+
+    // Act and Assert
+    assertThat(sessionService.getEtag(testSessionId)).isNull();
+  }
+
+  @Test
+  public void testGetCollectionEtag_ShouldChangeWithCountAndLastUpdate() {
+    // Arrange
+    LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 1, 10, 0);
+    CollectionVersion version = mock(CollectionVersion.class);
+    when(version.getTotal()).thenReturn(3L, 4L);
+    when(version.getVersionSum()).thenReturn(10L);
+    when(version.getLastUpdatedAt()).thenReturn(updatedAt);
+    when(sessionRepository.findCollectionVersion()).thenReturn(version);
+
+    // Act
+    String first = sessionService.getCollectionEtag();
+    String second = sessionService.getCollectionEtag();
+
+    // Assert
+    assertThat(first).isNotEqualTo(second);
+  }
+
+  @Test
+  public void testParticipateAll_ShouldReportOutcomePerUser() {
+    // Arrange
+    List<Long> userIds = Arrays.asList(2L, 3L, 4L, 5L, 2L);
+    when(sessionRepository.existsById(testSessionId)).thenReturn(true);
+    when(userRepository.findExistingIds(any()))
+      .thenReturn(Arrays.asList(2L, 3L, 4L));
+    when(
+      participationRepository.findUserIdsBySessionIdAndUserIdIn(
+        eq(testSessionId),
+        any()
+      )
+    )
+      .thenReturn(Collections.singletonList(3L));
+    SeatAvailability availability = seats(null, 1);
+    when(sessionRepository.findSeatAvailability(testSessionId))
+      .thenReturn(Optional.of(availability));
+    when(sessionRepository.reserveSeats(testSessionId, 2)).thenReturn(1);
+    when(
+      participationRepository.batchInsert(testSessionId, Arrays.asList(2L, 4L))
+    )
+      .thenReturn(new int[] { 1, 1 });
+
+    // Act
+    Map<Long, ParticipationOutcome> outcomes = sessionService.participateAll(
+      testSessionId,
+      userIds
+    );
+
+    // Assert
+    assertThat(outcomes)
+      .containsExactly(
+        entry(2L, ParticipationOutcome.ADDED),
+        entry(3L, ParticipationOutcome.ALREADY_PRESENT),
+        entry(4L, ParticipationOutcome.ADDED),
+        entry(5L, ParticipationOutcome.UNKNOWN_USER)
+      );
+    verify(participationRepository, times(1)).batchInsert(anyLong(), any());
+    verify(participationRepository, never())
+      .insertIfAbsent(anyLong(), anyLong());
+  }
+
+  @Test
+  public void testParticipateAll_BeyondCapacity_ShouldWaitlistTheRest() {
+    // Arrange
+    when(sessionRepository.existsById(testSessionId)).thenReturn(true);
+    when(userRepository.findExistingIds(any()))
+      .thenReturn(Arrays.asList(2L, 3L, 4L));
+    SeatAvailability availability = seats(10, 9);
+    when(sessionRepository.findSeatAvailability(testSessionId))
+      .thenReturn(Optional.of(availability));
+    when(sessionRepository.reserveSeats(testSessionId, 1)).thenReturn(1);
+    when(
+      participationRepository.batchInsert(
+        testSessionId,
+        Collections.singletonList(2L)
+      )
+    )
+      .thenReturn(new int[] { 1 });
+
+    // Act
+    Map<Long, ParticipationOutcome> outcomes = sessionService.participateAll(
+      testSessionId,
+      Arrays.asList(2L, 3L, 4L)
+    );
+
+    // Assert
+    assertThat(outcomes)
+      .containsExactly(
+        entry(2L, ParticipationOutcome.ADDED),
+        entry(3L, ParticipationOutcome.WAITLISTED),
+        entry(4L, ParticipationOutcome.WAITLISTED)
+      );
+    verify(waitlistRepository).insertIfAbsent(testSessionId, 3L);
+    verify(waitlistRepository).insertIfAbsent(testSessionId, 4L);
+  }
+
+  @Test
+  public void testParticipateAll_ConcurrentInsert_ShouldReleaseLostSeat() {
+    // Arrange
+    when(sessionRepository.existsById(testSessionId)).thenReturn(true);
+    when(userRepository.findExistingIds(any()))
+      .thenReturn(Arrays.asList(2L, 3L));
+    SeatAvailability availability = seats(null, 0);
+    when(sessionRepository.findSeatAvailability(testSessionId))
+      .thenReturn(Optional.of(availability));
+    when(sessionRepository.reserveSeats(testSessionId, 2)).thenReturn(1);
+    when(
+      participationRepository.batchInsert(testSessionId, Arrays.asList(2L, 3L))
+    )
+      .thenReturn(new int[] { 1, 0 });
+
+    // Act
+    Map<Long, ParticipationOutcome> outcomes = sessionService.participateAll(
+      testSessionId,
+      Arrays.asList(2L, 3L)
+    );
+
+    // Assert
+    assertThat(outcomes.get(3L))
+      .isEqualTo(ParticipationOutcome.ALREADY_PRESENT);
+    verify(sessionRepository).releaseSeats(testSessionId, 1);
+  }
+
+  @Test
+  public void testParticipateAll_SessionNotFound_ShouldThrowNotFound() {
+    // Arrange
+    when(sessionRepository.existsById(testSessionId)).thenReturn(false);
+
+    // Act and Assert
+    assertThatExceptionOfType(NotFoundException.class)
+      .isThrownBy(() ->
+        sessionService.participateAll(testSessionId, Arrays.asList(2L, 3L))
+      );
+    verify(userRepository, never()).findExistingIds(any());
+  }
+
+  @Test
+  public void testCreateSeries_WeeklyCount_ShouldSaveOccurrencesInOneCall() {
+    // Arrange
+    testSession.setCapacity(12);
+    when(sessionRepository.findById(testSessionId))
+      .thenReturn(Optional.of(testSession));
+    when(sessionRepository.saveAll(anyList()))
+      .thenAnswer(invocation -> invocation.getArgument(0));
+
+    // Act
+    List<Session> series = sessionService.createSeries(
+      testSessionId,
+      recurrence(RecurrenceRequest.Frequency.WEEKLY, 3, null)
+    );
+
+    // Assert
+    ZonedDateTime first = fixedDate.toInstant().atZone(ZoneId.systemDefault());
+    assertThat(series)
+      .extracting(Session::getDate)
+      .containsExactly(
+        Date.from(first.plusWeeks(1).toInstant()),
+        Date.from(first.plusWeeks(2).toInstant()),
+        Date.from(first.plusWeeks(3).toInstant())
+      );
+    assertThat(series)
+      .allSatisfy(session -> {
+        assertThat(session.getId()).isNull();
+        assertThat(session.getName()).isEqualTo("Session 1");
+        assertThat(session.getTeacher()).isEqualTo(testTeacher);
+        assertThat(session.getCapacity()).isEqualTo(12);
+        assertThat(session.getUsers()).isEmpty();
+        assertThat(session.getSeatsTaken()).isZero();
+      });
+    verify(sessionRepository).saveAll(anyList());
+    verify(sessionRepository, never()).save(any());
+    verify(participationRepository, never()).findUserIdsBySessionId(any());
+  }
+
+  @Test
+  public void testCreateSeries_CopyParticipants_ShouldStayWithinCapacity() {
+    // Arrange
+    testSession.setCapacity(1);
+    when(sessionRepository.findById(testSessionId))
+      .thenReturn(Optional.of(testSession));
+    when(participationRepository.findUserIdsBySessionId(testSessionId))
+      .thenReturn(Arrays.asList(1L, 2L));
+    when(userRepository.getById(1L)).thenReturn(testUser);
+    when(sessionRepository.saveAll(anyList()))
+      .thenAnswer(invocation -> invocation.getArgument(0));
+    RecurrenceRequest recurrence = recurrence(
+      RecurrenceRequest.Frequency.DAILY,
+      2,
+      null
+    );
+    recurrence.setCopyParticipants(true);
+
+    // Act
+    List<Session> series = sessionService.createSeries(
+      testSessionId,
+      recurrence
+    );
+
+    // Assert
+    assertThat(series).hasSize(2);
+    assertThat(series)
+      .allSatisfy(session -> {
+        assertThat(session.getUsers()).containsExactly(testUser);
+        assertThat(session.getSeatsTaken()).isEqualTo(1);
+      });
+    verify(userRepository, never()).getById(2L);
+  }
+
+  @Test
+  public void testCreateSeries_UntilDate_ShouldStopAtUntil() {
+    // Arrange
+    when(sessionRepository.findById(testSessionId))
+      .thenReturn(Optional.of(testSession));
+    when(sessionRepository.saveAll(anyList()))
+      .thenAnswer(invocation -> invocation.getArgument(0));
+    Date until = Date.from(
+      fixedDate
+        .toInstant()
+        .atZone(ZoneId.systemDefault())
+        .plusMonths(2)
+        .toInstant()
+    );
+
+    // Act
+    List<Session> series = sessionService.createSeries(
+      testSessionId,
+      recurrence(RecurrenceRequest.Frequency.MONTHLY, null, until)
+    );
+
+    // Assert
+    assertThat(series).hasSize(2);
+    assertThat(series.get(1).getDate()).isEqualTo(until);
+  }
+
+  @Test
+  public void testCreateSeries_InvalidRule_ShouldThrowBadRequest() {
+    // Arrange
+    when(sessionRepository.findById(testSessionId))
+      .thenReturn(Optional.of(testSession));
+
+    // Act and Assert
+    assertThatExceptionOfType(BadRequestException.class)
+      .isThrownBy(() ->
+        sessionService.createSeries(
+          testSessionId,
+          recurrence(RecurrenceRequest.Frequency.DAILY, null, null)
+        )
+      );
+    assertThatExceptionOfType(BadRequestException.class)
+      .isThrownBy(() ->
+        sessionService.createSeries(
+          testSessionId,
+          recurrence(RecurrenceRequest.Frequency.DAILY, 1000, null)
+        )
+      );
+    verify(sessionRepository, never()).saveAll(anyList());
+  }
+
+  @Test
+  public void testCreateSeries_SessionNotFound_ShouldThrowNotFound() {
+    // Arrange
+    when(sessionRepository.findById(testSessionId))
+      .thenReturn(Optional.empty());
+
+    // Act and Assert
+    assertThatExceptionOfType(NotFoundException.class)
+      .isThrownBy(() ->
+        sessionService.createSeries(
+          testSessionId,
+          recurrence(RecurrenceRequest.Frequency.WEEKLY, 3, null)
+        )
+      );
   }
 
   @Test
@@ -257,18 +1038,74 @@ public class SessionServiceTest {
     // Arrange
     Long testSessionIdUnderTest = testSessionId;
     Long userIdUnderTest = testUserId;
-    Session sessionUnderTest = testSession;
-    User userUnderTest = testUser;
-    sessionUnderTest.getUsers().add(userUnderTest);
-    when(sessionRepository.findById(testSessionIdUnderTest))
-      .thenReturn(Optional.of(sessionUnderTest));
+    when(sessionRepository.releaseSeat(testSessionIdUnderTest)).thenReturn(1);
+    when(
+      participationRepository.deleteBySessionIdAndUserId(
+        testSessionIdUnderTest,
+        userIdUnderTest
+      )
+    )
+      .thenReturn(1);
 
     // Act
     sessionService.noLongerParticipate(testSessionIdUnderTest, userIdUnderTest);
 
     // Assert
-    verify(sessionRepository).save(sessionUnderTest);
-    assertThat(sessionUnderTest.getUsers()).doesNotContain(userUnderTest);
+    InOrder lockOrder = inOrder(sessionRepository, participationRepository);
+    lockOrder.verify(sessionRepository).releaseSeat(testSessionIdUnderTest);
+    lockOrder
+      .verify(participationRepository)
+      .deleteBySessionIdAndUserId(testSessionIdUnderTest, userIdUnderTest);
+    verify(sessionRepository, never()).restoreSeat(anyLong());
+    verify(sessionRepository, never()).save(any());
+  }
+
+  @Test
+  public void testNoLongerParticipateInSession_ShouldPromoteFirstWaitlisted() {
+    // Arrange
+    WaitlistEntry taken = new WaitlistEntry(10L, testSessionId, 5L, null);
+    WaitlistEntry next = new WaitlistEntry(11L, testSessionId, 6L, null);
+    when(sessionRepository.releaseSeat(testSessionId)).thenReturn(1);
+    when(
+      participationRepository.deleteBySessionIdAndUserId(
+        testSessionId,
+        testUserId
+      )
+    )
+      .thenReturn(1);
+    when(
+      waitlistRepository.findBySessionIdOrderByIdAsc(eq(testSessionId), any())
+    )
+      .thenReturn(Arrays.asList(taken, next));
+    when(sessionRepository.reserveSeat(testSessionId)).thenReturn(1, 0);
+    // A concurrent promotion already removed the first entry.
+    when(waitlistRepository.deleteEntry(10L)).thenReturn(0);
+
+    // Act
+    sessionService.noLongerParticipate(testSessionId, testUserId);
+
+    // Assert
+    verify(sessionRepository, times(2)).releaseSeat(testSessionId);
+    verify(participationRepository, never())
+      .insertIfAbsent(anyLong(), anyLong());
+  }
+
+  @Test
+  public void testNoLongerParticipateInSession_Waitlisted_ShouldLeaveWaitlist() {
+    // Arrange
+    when(sessionRepository.releaseSeat(testSessionId)).thenReturn(1);
+    when(
+      waitlistRepository.deleteBySessionIdAndUserId(testSessionId, testUserId)
+    )
+      .thenReturn(1);
+
+    // Act
+    sessionService.noLongerParticipate(testSessionId, testUserId);
+
+    // Assert
+    verify(sessionRepository).restoreSeat(testSessionId);
+    verify(waitlistRepository, never())
+      .findBySessionIdOrderByIdAsc(anyLong(), any());
   }
 
   @Test
@@ -277,8 +1114,8 @@ public class SessionServiceTest {
     Long testSessionIdUnderTest = testSessionId;
     Long userIdUnderTest = testUserId;
 
-    when(sessionRepository.findById(testSessionIdUnderTest))
-      .thenReturn(Optional.empty());
+    when(sessionRepository.existsById(testSessionIdUnderTest))
+      .thenReturn(false);
 
     // Act and Assert
     assertThatExceptionOfType(NotFoundException.class)
@@ -295,9 +1132,14 @@ public class SessionServiceTest {
     // Arrange
     Long testSessionIdUnderTest = testSessionId;
     Long userId = testUserId;
-    Session sessionUnderTest = testSession;
-    when(sessionRepository.findById(testSessionIdUnderTest))
-      .thenReturn(Optional.of(sessionUnderTest));
+    when(sessionRepository.releaseSeat(testSessionIdUnderTest)).thenReturn(1);
+    when(
+      participationRepository.deleteBySessionIdAndUserId(
+        testSessionIdUnderTest,
+        userId
+      )
+    )
+      .thenReturn(0);
 
     // Act and Assert
     assertThatExceptionOfType(BadRequestException.class)
@@ -305,4 +1147,32 @@ public class SessionServiceTest {
         sessionService.noLongerParticipate(testSessionIdUnderTest, userId)
       );
   }
+
+  private RecurrenceRequest recurrence(
+    RecurrenceRequest.Frequency frequency,
+    Integer count,
+    Date until
+  ) {
+    RecurrenceRequest recurrence = new RecurrenceRequest();
+    recurrence.setFrequency(frequency);
+    recurrence.setCount(count);
+    recurrence.setUntil(until);
+    return recurrence;
+  }
+
+  private SeatAvailability seats(Integer capacity, int seatsTaken) {
+    SeatAvailability seats = mock(SeatAvailability.class);
+    when(seats.getCapacity()).thenReturn(capacity);
+    when(seats.getSeatsTaken()).thenReturn(seatsTaken);
+
+    return seats;
+  }
+
+  private SessionSummary mockSummary(Long id) {
+    SessionSummary summary = mock(SessionSummary.class);
+    when(summary.getId()).thenReturn(id);
+    when(summary.getDate()).thenReturn(fixedDate);
+
+    return summary;
+  }
 }
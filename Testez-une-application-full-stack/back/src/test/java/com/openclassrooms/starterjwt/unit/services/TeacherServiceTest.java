@@ -63,21 +63,24 @@ public class TeacherServiceTest {
     // Arrange
     Long teacherIdUnderTest = testTeacherId;
     Teacher teacherUnderTest = testTeacher;
-    when(teacherRepository.findById(teacherIdUnderTest))
-      .thenReturn(Optional.of(teacherUnderTest));
+    when(teacherRepository.findAll()).thenReturn(testTeachersList);
 
     // Act
     Teacher retrievedTeacher = teacherService.findById(teacherIdUnderTest);
 
     // Assert
     assertThat(retrievedTeacher).isEqualTo(teacherUnderTest);
-    verify(teacherRepository).findById(teacherIdUnderTest);
+    assertThat(retrievedTeacher.getFirstName())
+      .isEqualTo(teacherUnderTest.getFirstName());
+    assertThat(retrievedTeacher.getUpdatedAt())
+      .isEqualTo(teacherUnderTest.getUpdatedAt());
   }
 
   @Test
   public void testFindTeacherById_NonExistingId() {
     // Arrange
     Long nonExistingTeacherId = 99L;
+    when(teacherRepository.findAll()).thenReturn(testTeachersList);
     when(teacherRepository.findById(nonExistingTeacherId))
       .thenReturn(Optional.empty());
 
@@ -88,4 +91,81 @@ public class TeacherServiceTest {
     assertThat(retrievedTeacher).isNull();
     verify(teacherRepository).findById(nonExistingTeacherId);
   }
+
+  @Test
+  public void testFindTeachers_ShouldBeServedFromSnapshot() {
+    // Arrange
+    when(teacherRepository.findAll()).thenReturn(testTeachersList);
+
+    // Act
+    teacherService.findAll();
+    List<Teacher> retrievedTeachersList = teacherService.findAll();
+    Teacher retrievedTeacher = teacherService.findById(testTeacherId);
+
+    // Assert
+    assertThat(retrievedTeachersList).containsExactly(testTeacher);
+    assertThat(retrievedTeacher).isEqualTo(testTeacher);
+    verify(teacherRepository, times(1)).findAll();
+    verify(teacherRepository, never()).findById(anyLong());
+  }
+
+  @Test
+  public void testInvalidate_ShouldReloadSnapshotAndChangeEtag() {
+    // Arrange
+    when(teacherRepository.findAll()).thenReturn(testTeachersList);
+    String etag = teacherService.getEtag();
+    testTeacher.setUpdatedAt(fixedDateTime.plusDays(1));
+
+    // Act
+    String unchangedEtag = teacherService.getEtag();
+    teacherService.invalidate();
+    String reloadedEtag = teacherService.getEtag();
+
+    // Assert
+    assertThat(unchangedEtag).isEqualTo(etag);
+    assertThat(reloadedEtag)
+      .isNotEqualTo(etag)
+      .startsWith("\"")
+      .endsWith("\"");
+    verify(teacherRepository, times(2)).findAll();
+  }
+
+  @Test
+  public void testFindTeacherById_MissingFromSnapshot_ShouldFallBackToDatabase() {
+    // Arrange
+    when(teacherRepository.findAll())
+      .thenReturn(new ArrayList<Teacher>())
+      .thenReturn(testTeachersList);
+    when(teacherRepository.findById(testTeacherId))
+      .thenReturn(Optional.of(testTeacher));
+
+    // Act
+    Teacher inserted = teacherService.findById(testTeacherId);
+    List<Teacher> reloaded = teacherService.findAll();
+
+    // Assert
+    assertThat(inserted).isEqualTo(testTeacher);
+    assertThat(reloaded).containsExactly(testTeacher);
+    verify(teacherRepository, times(2)).findAll();
+    verify(teacherRepository, times(1)).findById(testTeacherId);
+  }
+
+  @Test
+  public void testFindTeachers_ShouldHandOutCopiesOfTheSnapshot() {
+    // Arrange
+    when(teacherRepository.findAll()).thenReturn(testTeachersList);
+
+    // Act
+    Teacher first = teacherService.findById(testTeacherId);
+    first.setFirstName("changed");
+    testTeacher.setLastName("changed");
+    Teacher second = teacherService.findById(testTeacherId);
+    List<Teacher> all = teacherService.findAll();
+
+    // Assert
+    assertThat(second).isNotSameAs(first).isNotSameAs(testTeacher);
+    assertThat(second.getFirstName()).isEqualTo("firstName");
+    assertThat(second.getLastName()).isEqualTo("lastName");
+    assertThat(all.get(0)).isNotSameAs(second).isNotSameAs(testTeacher);
+  }
 }
@@ -5,8 +5,12 @@ import static org.mockito.Mockito.*;
 
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationService;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCache;
 import com.openclassrooms.starterjwt.services.UserService;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,6 +27,12 @@ public class UserServiceTest {
   @Mock
   private UserRepository userRepository;
 
+  @Mock
+  private TokenRevocationService tokenRevocationService;
+
+  @Mock
+  private UserDetailsCache userDetailsCache;
+
   private Long testUserId = 1L;
   private LocalDateTime fixedDateTime = LocalDateTime.of(2024, 1, 1, 1, 1, 1);
 
@@ -51,6 +61,22 @@ public class UserServiceTest {
 
     // Assert
     verify(userRepository).deleteById(userIdUnderTest);
+    verify(tokenRevocationService).revokeUser(userIdUnderTest);
+  }
+
+  @Test
+  public void testDeleteUser_InvalidatesCachedUserDetails() {
+    // Arrange
+    Long userIdUnderTest = testUserId;
+    when(userRepository.findById(userIdUnderTest))
+      .thenReturn(Optional.of(testUser));
+
+    // Act
+    userService.delete(userIdUnderTest);
+
+    // Assert
+    verify(userDetailsCache).invalidate(testUser.getEmail());
+    verify(userRepository).deleteById(userIdUnderTest);
   }
 
   @Test
@@ -83,4 +109,19 @@ public class UserServiceTest {
     assertThat(retrievedUser).isNull();
     verify(userRepository).findById(nonExistingUserId);
   }
+
+  @Test
+  public void testFindAllUsersById() {
+    // Arrange
+    List<Long> userIdsUnderTest = Arrays.asList(testUserId, 99L);
+    when(userRepository.findAllById(userIdsUnderTest))
+      .thenReturn(Arrays.asList(testUser));
+
+    // Act
+    List<User> retrievedUsers = userService.findAllById(userIdsUnderTest);
+
+    // Assert
+    assertThat(retrievedUsers).containsExactly(testUser);
+    verify(userRepository).findAllById(userIdsUnderTest);
+  }
 }